@@ -1,7 +1,8 @@
 import { UserInfoResponse } from '@/generated/user';
 import { prepareString } from '@/utils';
-import { createUnauthorizedError } from '@/utils/exceptions';
+import { createTooManyRequestsError, createUnauthorizedError } from '@/utils/exceptions';
 import { clearJwtCookies, createMeta4ServiceRequest, setJwtCookies } from '@/utils/jwt-utils';
+import { status } from '@grpc/grpc-js';
 import { Static, Type } from '@sinclair/typebox';
 import bcrypt from 'bcrypt';
 import { FastifyInstance } from 'fastify';
@@ -31,13 +32,15 @@ export default async function (fastify: FastifyInstance) {
       throw createUnauthorizedError('Username not provided');
     }
 
-    const metadata = createMeta4ServiceRequest(fastify);
+    const metadata = createMeta4ServiceRequest(fastify, request.ip);
     const user = await new Promise<UserInfoResponse>((resolve, reject) => {
       console.debug(`Request to user-service (${usernameOrEmail})`);
       fastify.userGrpc.findUserByEmailOrUsername({ usernameOrEmail }, metadata, (error, response) => {
         if (error) {
           console.debug(`Response from user-service: error (${usernameOrEmail}, ${error})`);
-          reject(error);
+          reject(error.code === status.RESOURCE_EXHAUSTED
+            ? createTooManyRequestsError('Too many login attempts')
+            : error);
         } else {
           console.debug(`Response from user-service: success (${usernameOrEmail})`);
           resolve(response);
@@ -48,13 +51,37 @@ export default async function (fastify: FastifyInstance) {
     const passwordValid = await bcrypt.compare(password, user.password);
     if (!passwordValid) {
       console.info(`Invalid password for ${usernameOrEmail}`);
+      // counts against the account's login limit, not awaited
+      fastify.userGrpc.reportLoginFailure({ usernameOrEmail }, metadata, (error) => {
+        if (error) {
+          console.info(`Login failure report failed for ${usernameOrEmail}: ${error}`);
+        }
+      });
       throw createUnauthorizedError('Invalid credential');
     }
 
     console.info(`Success auth for ${usernameOrEmail}`);
 
+    // not awaited, the login doesn't wait for the new hash
+    if (user.passwordNeedsRehash) {
+      fastify.userGrpc.rehashPassword({ id: user.id, password }, metadata, (error) => {
+        if (error) {
+          console.info(`Password rehash failed for ${usernameOrEmail}: ${error}`);
+        }
+      });
+    }
+
+    // taken before signing, so it isn't after the iat of the new tokens
+    const issuedAt = Math.floor(Date.now() / 1000);
     setJwtCookies(fastify, reply, user, 'both');
 
+    // records the login and supersedes older tokens, not awaited
+    fastify.userGrpc.reportLoginSuccess({ id: user.id, issuedAt }, metadata, (error) => {
+      if (error) {
+        console.info(`Login report failed for ${usernameOrEmail}: ${error}`);
+      }
+    });
+
     return reply.send({
       data: { success: true },
       message: 'Login successful',
@@ -3,3 +3,4 @@ import createError from '@fastify/error';
 export const createBadRequiestError = (msg: string) => new (createError('Bad Request', msg, 400));
 export const createUnauthorizedError = (msg: string) => new (createError('Unauthorized', msg, 401));
 export const createForbiddenError = (msg: string) => new (createError('Forbidden', msg, 403));
+export const createTooManyRequestsError = (msg: string) => new (createError('Too Many Requests', msg, 429));
@@ -58,10 +58,14 @@ export const clearJwtCookies = (
   tokens: 'both' | 'access' | 'refresh'
 ) => _setJwtCookies(reply, null, tokens);
 
-export const createMeta4ServiceRequest = (fastify: FastifyInstance) => {
+export const createMeta4ServiceRequest = (fastify: FastifyInstance, clientIp?: string) => {
   const metadata = new Metadata();
   const requestJwt = fastify.jwt.sign(true, 'service');
   metadata.add('authorization', `Bearer ${requestJwt}`)
+  // lets user-service throttle login attempts per client
+  if (clientIp) {
+    metadata.add('x-client-ip', clientIp);
+  }
   return metadata;
 }
 
@@ -10,7 +10,6 @@ plugins {
 group = "com.ilogos"
 version = "0.0.1-SNAPSHOT"
 
-val jjwtVersion = "0.11.5"
 val springdocVersion = "2.8.8"
 val springGrpcVersion = "0.8.0"
 
@@ -38,13 +37,21 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.security:spring-security-crypto")
+    // argon2id for spring-security-crypto
+    implementation("org.bouncycastle:bcprov-jdk18on:1.80")
     implementation("org.springframework.boot:spring-boot-starter-security")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+
+    // Cache
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("com.github.ben-manes.caffeine:jcache")
+    implementation("org.hibernate.orm:hibernate-jcache")
+    implementation("org.hibernate.orm:hibernate-micrometer")
 
     // JWT
-    implementation("io.jsonwebtoken:jjwt-api:$jjwtVersion")
-    runtimeOnly("io.jsonwebtoken:jjwt-impl:$jjwtVersion")
-    runtimeOnly("io.jsonwebtoken:jjwt-jackson:$jjwtVersion")
     implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server")
+    // Ed25519 verification in nimbus-jose-jwt
+    implementation("com.google.crypto.tink:tink:1.16.0")
 
     // Lombok
     compileOnly("org.projectlombok:lombok")
@@ -107,4 +114,8 @@ sourceSets {
 
 tasks.withType<Test> {
     useJUnitPlatform()
+    // opt-in suites against the local database, e.g. ./gradlew test -Dplans=true
+    listOf("benchmark", "plans").forEach { name ->
+        System.getProperty(name)?.let { systemProperty(name, it) }
+    }
 }
@@ -1,14 +1,15 @@
 package com.ilogos.user.common;
 
-import java.security.PublicKey;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.security.oauth2.jwt.Jwt;
 
 import com.ilogos.user.user.model.IUserBase;
 
-import io.jsonwebtoken.Jwts;
 import lombok.Getter;
 
 @Getter
@@ -16,6 +17,7 @@ public class TokenInfo implements IUserBase {
     public final static String USERNAME_CLAIM = "username";
     public final static String EMAIL_CLAIM = "email";
     public final static String TYPE_CLAIM = "type";
+    public final static String ROLES_CLAIM = "roles";
 
     public final static String ACCESS_TYPE = "access";
     public final static String REFRESH_TYPE = "refresh";
@@ -27,21 +29,7 @@ public class TokenInfo implements IUserBase {
     private final String email;
     private final Date issuedAt;
     private final String type;
-
-    public TokenInfo(String token, PublicKey publicKey) {
-        this.token = token;
-        var claims = Jwts.parserBuilder()
-                .setSigningKey(publicKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        expiration = claims.getExpiration();
-        username = claims.get(USERNAME_CLAIM, String.class);
-        id = UUID.fromString(claims.getSubject());
-        email = claims.get(EMAIL_CLAIM, String.class);
-        issuedAt = claims.getIssuedAt();
-        type = claims.get(TYPE_CLAIM, String.class);
-    }
+    private final Set<String> roles;
 
     public TokenInfo(Jwt jwt) {
         token = jwt.getTokenValue();
@@ -52,6 +40,13 @@ public class TokenInfo implements IUserBase {
         email = jwt.getClaimAsString(EMAIL_CLAIM);
         issuedAt = Date.from(jwt.getIssuedAt());
         type = jwt.getClaimAsString(TYPE_CLAIM);
+        roles = toRoles(jwt.getClaimAsStringList(ROLES_CLAIM));
+    }
+
+    private static Set<String> toRoles(List<?> claim) {
+        return claim == null
+                ? Set.of()
+                : claim.stream().map(String::valueOf).collect(Collectors.toUnmodifiableSet());
     }
 
     public boolean isExpired() {
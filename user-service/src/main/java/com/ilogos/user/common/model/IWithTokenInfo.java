@@ -0,0 +1,7 @@
+package com.ilogos.user.common.model;
+
+import com.ilogos.user.common.TokenInfo;
+
+public interface IWithTokenInfo {
+    TokenInfo getTokenInfo();
+}
@@ -0,0 +1,17 @@
+package com.ilogos.user.common.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the {@link com.ilogos.user.common.TokenInfo} of the access token that
+ * authenticated the current request, as decoded by the security filter chain.
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentToken {
+}
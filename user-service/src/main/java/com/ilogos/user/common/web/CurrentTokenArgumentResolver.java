@@ -0,0 +1,40 @@
+package com.ilogos.user.common.web;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.ilogos.user.common.TokenInfo;
+import com.ilogos.user.common.model.IWithTokenInfo;
+import com.ilogos.user.exception.ExceptionWithStatus;
+
+public class CurrentTokenArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentToken.class)
+                && TokenInfo.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public TokenInfo resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null) {
+            if (authentication.getPrincipal() instanceof IWithTokenInfo principal
+                    && principal.getTokenInfo() != null) {
+                return principal.getTokenInfo();
+            }
+            if (authentication instanceof JwtAuthenticationToken jwtAuthentication) {
+                return new TokenInfo(jwtAuthentication.getToken());
+            }
+        }
+
+        throw new ExceptionWithStatus(HttpStatus.UNAUTHORIZED, "Bearer token not setted");
+    }
+}
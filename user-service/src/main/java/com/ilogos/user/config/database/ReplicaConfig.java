@@ -0,0 +1,26 @@
+package com.ilogos.user.config.database;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user.replica")
+public class ReplicaConfig {
+
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    // lookups of users written by this instance within this window go to the primary
+    private Duration staleness = Duration.ofSeconds(5);
+
+}
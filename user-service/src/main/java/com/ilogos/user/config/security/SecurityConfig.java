@@ -11,15 +11,12 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 
 import com.ilogos.user.jwt.CustomJwtAuthenticationConverter;
 import com.ilogos.user.jwt.JwtService;
-import com.ilogos.user.user.jwt.JwtUserDetailsService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -29,12 +26,7 @@ import lombok.RequiredArgsConstructor;
 public class SecurityConfig {
 
     private final JwtService jwtService;
-    private final JwtUserDetailsService userDetailsService;
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    private final CustomJwtAuthenticationConverter jwtAuthenticationConverter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -50,10 +42,10 @@ public class SecurityConfig {
                                 "/swagger-ui/**",
                                 "/swagger-ui.html")
                         .permitAll()
+                        .requestMatchers("/api/user/import").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .oauth2ResourceServer(it -> it.jwt(jwt -> jwt
-                        .jwtAuthenticationConverter(
-                                new CustomJwtAuthenticationConverter(userDetailsService))));
+                        .jwtAuthenticationConverter(jwtAuthenticationConverter)));
 
         return builder.build();
     }
@@ -73,6 +65,7 @@ public class SecurityConfig {
     AuthenticationProcessInterceptor grpcSecurityConfigurer(GrpcSecurity grpc) throws Exception {
         return grpc.authorizeRequests(authorize -> authorize
                 .allRequests().authenticated())
+                // uses the jwtDecoder bean, so tokens verified over REST or earlier calls aren't re-verified
                 .oauth2ResourceServer(it -> it.jwt(Customizer.withDefaults()))
                 .build();
     }
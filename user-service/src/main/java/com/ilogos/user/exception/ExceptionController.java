@@ -12,8 +12,6 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.ilogos.user.response.ErrorResponse;
 
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.security.SignatureException;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 
@@ -61,14 +59,4 @@ public class ExceptionController {
         return ErrorResponse.response(HttpStatus.BAD_REQUEST, errors);
     }
 
-    @ExceptionHandler(SignatureException.class)
-    public ResponseEntity<ErrorResponse> handleException(SignatureException ex) {
-        return ErrorResponse.response(HttpStatus.BAD_REQUEST, ex);
-    }
-
-    @ExceptionHandler(MalformedJwtException.class)
-    public ResponseEntity<ErrorResponse> handleMalformedJwtException(MalformedJwtException ex) {
-        return ErrorResponse.response(HttpStatus.BAD_REQUEST, "Malformed JWT");
-    }
-
 }
@@ -1,24 +1,31 @@
 package com.ilogos.user.jwt;
 
-import java.util.UUID;
-
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
 import org.springframework.stereotype.Component;
 
+import com.ilogos.user.common.TokenInfo;
+import com.ilogos.user.jwt.JwtConfig.AuthenticationMode;
 import com.ilogos.user.user.jwt.JwtUserDetailsService;
+import com.ilogos.user.user.jwt.TokenUserDetails;
+import com.ilogos.user.user.jwt.UserTokenStateCache;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class CustomJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
 
+    private final JwtConfig jwtConfig;
     private final JwtUserDetailsService userDetailsService;
+    private final UserTokenStateCache userTokenStateCache;
 
     @Override
     public AbstractAuthenticationToken convert(@NonNull Jwt jwt) {
@@ -27,11 +34,24 @@ public class CustomJwtAuthenticationConverter implements Converter<Jwt, Abstract
             return null;
         }
 
-        UserDetails userDetails = userDetailsService.loadUserById(UUID.fromString(id));
+        // decoded once here, then reused by controllers through the principal
+        var tokenInfo = new TokenInfo(jwt);
+        UserDetails userDetails = jwtConfig.getAuthenticationMode() == AuthenticationMode.CLAIMS
+                ? loadFromClaims(tokenInfo)
+                : userDetailsService.loadUserByToken(tokenInfo);
 
         return new UsernamePasswordAuthenticationToken(
                 userDetails,
                 null,
                 userDetails.getAuthorities());
     }
+
+    private UserDetails loadFromClaims(TokenInfo tokenInfo) {
+        if (jwtConfig.isFreshnessCheck() && !userTokenStateCache.isFresh(tokenInfo)) {
+            log.info("Attempt to gain access via revoked token ({})", tokenInfo.getId());
+            throw new InvalidBearerTokenException("Token revoked");
+        }
+
+        return new TokenUserDetails(tokenInfo);
+    }
 }
@@ -0,0 +1,27 @@
+package com.ilogos.user.jwt;
+
+import java.security.Key;
+import java.security.interfaces.EdECPublicKey;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+
+/**
+ * {@link DefaultJWSVerifierFactory} has no EdDSA verifier, Ed25519 keys are
+ * verified with Nimbus' Tink-based {@link Ed25519Verifier}.
+ */
+class EdDsaVerifierFactory extends DefaultJWSVerifierFactory {
+
+    @Override
+    public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+        if (JWSAlgorithm.EdDSA.equals(header.getAlgorithm()) && key instanceof EdECPublicKey edKey) {
+            return new Ed25519Verifier((OctetKeyPair) JwtService.toJwk(edKey, null));
+        }
+        return super.createJWSVerifier(header, key);
+    }
+}
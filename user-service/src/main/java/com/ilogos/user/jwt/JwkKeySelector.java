@@ -0,0 +1,80 @@
+package com.ilogos.user.jwt;
+
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+
+/**
+ * Picks the verification keys of a token by {@code kid}, or all keys of its
+ * algorithm for tokens without one. Unlike {@code JWSVerificationKeySelector}
+ * it also returns Ed25519 {@link OctetKeyPair} keys, as Java keys.
+ */
+class JwkKeySelector implements JWSKeySelector<SecurityContext> {
+
+    // X.509 SubjectPublicKeyInfo prefix of a raw 32-byte Ed25519 key
+    private static final byte[] ED25519_PREFIX = HexFormat.of().parseHex("302a300506032b6570032100");
+
+    private final Set<JWSAlgorithm> algorithms;
+    private final JWKSet keys;
+
+    JwkKeySelector(Set<JWSAlgorithm> algorithms, JWKSet keys) {
+        this.algorithms = algorithms;
+        this.keys = keys;
+    }
+
+    @Override
+    public List<Key> selectJWSKeys(JWSHeader header, SecurityContext context) throws KeySourceException {
+        if (!algorithms.contains(header.getAlgorithm())) {
+            return List.of();
+        }
+        var matching = new JWKSelector(JWKMatcher.forJWSHeader(header)).select(keys);
+        try {
+            var selected = new ArrayList<Key>(matching.size());
+            for (var jwk : matching) {
+                selected.add(toKey(jwk));
+            }
+            return selected;
+        } catch (JOSEException e) {
+            throw new KeySourceException("Invalid verification key", e);
+        }
+    }
+
+    private static Key toKey(JWK jwk) throws JOSEException {
+        if (jwk instanceof RSAKey rsa) {
+            return rsa.toRSAPublicKey();
+        }
+        if (jwk instanceof ECKey ec) {
+            return ec.toECPublicKey();
+        }
+        if (jwk instanceof OctetKeyPair okp) {
+            var x = okp.getX().decode();
+            var encoded = new byte[ED25519_PREFIX.length + x.length];
+            System.arraycopy(ED25519_PREFIX, 0, encoded, 0, ED25519_PREFIX.length);
+            System.arraycopy(x, 0, encoded, ED25519_PREFIX.length, x.length);
+            try {
+                return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+            } catch (Exception e) {
+                throw new JOSEException("Invalid Ed25519 key", e);
+            }
+        }
+        throw new JOSEException("Unsupported key type " + jwk.getKeyType());
+    }
+}
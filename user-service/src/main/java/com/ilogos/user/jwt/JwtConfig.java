@@ -1,5 +1,9 @@
 package com.ilogos.user.jwt;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,6 +14,36 @@ import lombok.Data;
 @ConfigurationProperties(prefix = "jwt")
 public class JwtConfig {
 
+    // RSA, EC P-256 or Ed25519 key verifying tokens without a kid header
     private String publicKeyPath;
 
+    // PEM paths by kid, to rotate keys or migrate the signing algorithm
+    private Map<String, String> publicKeys = new HashMap<>();
+
+    private long verifiedTokenCacheSize = 10_000;
+
+    public enum AuthenticationMode {
+        // principal is loaded from the database on every request
+        DATABASE,
+        // principal is built from the token claims
+        CLAIMS
+    }
+
+    private AuthenticationMode authenticationMode = AuthenticationMode.DATABASE;
+
+    // in CLAIMS mode, reject tokens of inactive users or issued before the last login
+    private boolean freshnessCheck = false;
+
+    private long freshnessCacheSize = 10_000;
+
+    private Duration freshnessCacheTtl = Duration.ofSeconds(30);
+
+    // reject tokens superseded by a later token from an in-memory index, in both modes
+    private boolean tokenEpochCheck = false;
+
+    // access token lifetime, older epochs are dropped from the index
+    private Duration maxTokenLifetime = Duration.ofHours(1);
+
+    private Duration tokenEpochRefreshInterval = Duration.ofSeconds(5);
+
 }
@@ -1,26 +1,61 @@
 package com.ilogos.user.jwt;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPublicKey;
 import java.security.interfaces.RSAPublicKey;
+import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.ilogos.user.common.TokenInfo;
 import com.ilogos.user.exception.ExceptionWithStatus;
+import com.ilogos.user.user.jwt.TokenEpochIndex;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,38 +65,160 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class JwtService {
 
+    private static final Set<JWSAlgorithm> ALGORITHMS = Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256,
+            JWSAlgorithm.EdDSA);
+
+    // X.509 encoding of an Ed25519 key ends with the raw 32-byte key
+    private static final int ED25519_KEY_LENGTH = 32;
+
     private final JwtConfig jwtConfig;
+    private final MeterRegistry meterRegistry;
+    private final TokenEpochIndex tokenEpochIndex;
 
-    private RSAPublicKey publicKey;
+    // checks signature and timestamps only, claim validators are applied per use
+    private JwtDecoder tokenDecoder;
 
-    private RSAPublicKey loadKey() throws IOException {
-        String pem = Files.readString(Path.of(jwtConfig.getPublicKeyPath()));
+    // verified tokens by SHA-256 of the token, each evicted at its expiration
+    private Cache<String, Jwt> verifiedTokens;
 
+    private static PublicKey parseKey(String pem) {
         if (pem == null || pem.isBlank()) {
             throw new IllegalStateException("Public key is missing");
         }
         String key = pem.replace("-----BEGIN PUBLIC KEY-----", "")
                 .replace("-----END PUBLIC KEY-----", "")
                 .replaceAll("\\s", "");
-        byte[] decoded = Base64.getDecoder().decode(key);
-        X509EncodedKeySpec keySpec = new X509EncodedKeySpec(decoded);
-        try {
-            KeyFactory factory = KeyFactory.getInstance("RSA");
-            return (RSAPublicKey) factory.generatePublic(keySpec);
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to load RSA public key", e);
+        X509EncodedKeySpec keySpec = new X509EncodedKeySpec(Base64.getDecoder().decode(key));
+        // the key type is only known from the algorithm id inside the encoding
+        for (var algorithm : List.of("RSA", "EC", "Ed25519")) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePublic(keySpec);
+            } catch (InvalidKeySpecException e) {
+                continue;
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
         }
+        throw new IllegalStateException("Unsupported public key, expected RSA, EC P-256 or Ed25519");
+    }
+
+    static JWK toJwk(PublicKey key, String kid) {
+        if (key instanceof RSAPublicKey rsa) {
+            return new RSAKey.Builder(rsa).keyID(kid).algorithm(JWSAlgorithm.RS256).build();
+        }
+        if (key instanceof ECPublicKey ec) {
+            if (!Curve.P_256.equals(Curve.forECParameterSpec(ec.getParams()))) {
+                throw new IllegalStateException("Unsupported EC curve, expected P-256");
+            }
+            return new ECKey.Builder(Curve.P_256, ec).keyID(kid).algorithm(JWSAlgorithm.ES256).build();
+        }
+        if (key instanceof EdECPublicKey) {
+            var encoded = key.getEncoded();
+            var x = Arrays.copyOfRange(encoded, encoded.length - ED25519_KEY_LENGTH, encoded.length);
+            return new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(x)).keyID(kid)
+                    .algorithm(JWSAlgorithm.EdDSA).build();
+        }
+        throw new IllegalStateException("Unsupported public key " + key.getAlgorithm());
+    }
+
+    private JWKSet loadKeys() throws IOException {
+        var jwks = new ArrayList<JWK>();
+        // the default key verifies tokens without a kid header
+        if (jwtConfig.getPublicKeyPath() != null && !jwtConfig.getPublicKeyPath().isBlank()) {
+            jwks.add(toJwk(parseKey(Files.readString(Path.of(jwtConfig.getPublicKeyPath()))), null));
+        }
+        for (var entry : jwtConfig.getPublicKeys().entrySet()) {
+            jwks.add(toJwk(parseKey(Files.readString(Path.of(entry.getValue()))), entry.getKey()));
+        }
+        if (jwks.isEmpty()) {
+            throw new IllegalStateException("Public key is missing");
+        }
+        return new JWKSet(jwks);
+    }
+
+    /**
+     * Signature and timestamp checks with the key picked by the token's
+     * {@code kid}, or any key of its algorithm for tokens without one.
+     */
+    static JwtDecoder buildTokenDecoder(JWKSet keys) {
+        var processor = new DefaultJWTProcessor<SecurityContext>();
+        processor.setJWSKeySelector(new JwkKeySelector(ALGORITHMS, keys));
+        processor.setJWSVerifierFactory(new EdDsaVerifierFactory());
+        // claims are checked by the decoder's validators
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new NimbusJwtDecoder(processor);
     }
 
     @PostConstruct
     public void init() throws IOException {
         if (this.jwtConfig != null) {
-            publicKey = loadKey();
+            var keys = loadKeys();
+            tokenDecoder = buildTokenDecoder(keys);
+            log.info("Token verification keys: {}", keys.getKeys().stream()
+                    .map(it -> "%s (%s)".formatted(it.getKeyID() != null ? it.getKeyID() : "default",
+                            it.getAlgorithm()))
+                    .toList());
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(jwtConfig.getVerifiedTokenCacheSize())
+                    .expireAfter(new Expiry<String, Jwt>() {
+                        @Override
+                        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+                            return Math.max(0, Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos());
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(String key, Jwt jwt, long currentTime,
+                                long currentDuration) {
+                            return currentDuration;
+                        }
+
+                        @Override
+                        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .recordStats()
+                    .build();
+
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            var sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Verifies signature and timestamps, skipping the signature check for tokens
+     * verified before and not yet expired.
+     */
+    private Jwt decode(String token) {
+        var key = digest(token);
+        var cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && cached.getExpiresAt().isAfter(Instant.now())) {
+            return cached;
+        }
+
+        var jwt = tokenDecoder.decode(token);
+        if (jwt.getExpiresAt() != null) {
+            verifiedTokens.put(key, jwt);
         }
+        return jwt;
     }
 
     public TokenInfo getTokenInfo(String token) {
-        return new TokenInfo(token, publicKey);
+        try {
+            return new TokenInfo(decode(token));
+        } catch (JwtException ex) {
+            log.info("Invalid token: {}", ex.getMessage());
+            throw new ExceptionWithStatus(HttpStatus.UNAUTHORIZED, ex);
+        }
     }
 
     public TokenInfo extractTokenInfoFromHeader(String header) {
@@ -72,12 +229,10 @@ public class JwtService {
             log.info("Bearer token not setted");
             throw new ExceptionWithStatus(HttpStatus.UNAUTHORIZED, "Bearer token not setted");
         }
-        return new TokenInfo(token.get(), publicKey);
+        return getTokenInfo(token.get());
     }
 
     public JwtDecoder buildJwtDecoder() {
-        var decoder = NimbusJwtDecoder.withPublicKey(publicKey).build();
-
         JwtClaimValidator<String> tokenTypeValidator = new JwtClaimValidator<>(TokenInfo.TYPE_CLAIM,
                 it -> {
                     if (!TokenInfo.isAccessType(it)) {
@@ -105,14 +260,31 @@ public class JwtService {
                     return true;
                 });
 
+        // needs both sub and iat, so not a single-claim JwtClaimValidator
+        OAuth2TokenValidator<Jwt> tokenEpochValidator = jwt -> {
+            if (tokenEpochIndex.isRevoked(jwt.getSubject(), jwt.getIssuedAt())) {
+                log.info("Attempt to gain access via revoked token ({})", jwt.getSubject());
+                return OAuth2TokenValidatorResult.failure(
+                        new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "Token revoked", null));
+            }
+            return OAuth2TokenValidatorResult.success();
+        };
+
         OAuth2TokenValidator<Jwt> validator = new DelegatingOAuth2TokenValidator<>(
                 tokenTypeValidator,
                 tokenUsernameValidator,
-                tokenEmailValidator);
-
-        decoder.setJwtValidator(validator);
+                tokenEmailValidator,
+                tokenEpochValidator);
 
-        return decoder;
+        return token -> {
+            var jwt = decode(token);
+            var result = validator.validate(jwt);
+            if (result.hasErrors()) {
+                var errors = result.getErrors();
+                throw new JwtValidationException(errors.iterator().next().getDescription(), errors);
+            }
+            return jwt;
+        };
     }
 
 }
@@ -2,16 +2,18 @@ package com.ilogos.user.user;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Type;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.ilogos.user.common.TokenInfo;
 import com.ilogos.user.common.hibernate.CitextType;
@@ -27,6 +29,7 @@ import com.ilogos.user.user.model.RoleType;
 import com.ilogos.user.user.usernameHistory.UsernameHistory;
 import com.ilogos.user.user.validation.annotation.ValidUsername;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
@@ -56,6 +59,8 @@ import lombok.Setter;
 import lombok.Singular;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -68,8 +73,6 @@ public class User implements IUserBase,
         IWithEmailHistory,
         IWithUsernameHistory {
 
-    private static final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-
     @Transient
     @Getter(AccessLevel.NONE)
     @Setter(AccessLevel.NONE)
@@ -82,7 +85,10 @@ public class User implements IUserBase,
         ATTEMPTS_RESET,
         ATTEMPTS_INCREMENT,
         LOGGED_TIME,
-        EMAIL
+        TOKEN_ISSUED,
+        EMAIL,
+        // columns without a targeted update, saved with the whole entity
+        OTHER
     }
 
     @Setter(AccessLevel.NONE)
@@ -101,11 +107,14 @@ public class User implements IUserBase,
     @Column(unique = true, columnDefinition = "citext", nullable = false)
     private String email;
 
+    // hash from PasswordHashingService
+    @Setter(AccessLevel.NONE)
     @NotBlank
     @Column(nullable = false)
     private String password;
 
     @NotEmpty
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user.roles")
     @ElementCollection(targetClass = RoleType.class, fetch = FetchType.EAGER)
     @Enumerated(EnumType.STRING)
     @Singular
@@ -195,14 +204,6 @@ public class User implements IUserBase,
 
     public static class UserBuilder {
 
-        public UserBuilder password(String rawPassword) {
-            if (!rawPassword.isBlank()) {
-                password = passwordEncoder.encode(rawPassword);
-            }
-
-            return this;
-        }
-
         public UserBuilder username(String username) {
             this.username = username != null ? username.trim() : null;
             return this;
@@ -271,21 +272,15 @@ public class User implements IUserBase,
         }
     }
 
-    public boolean equalsPassword(String rawPassword) {
-        return passwordEncoder.matches(rawPassword, password);
-    }
-
-    public boolean setPassword(String rawPassword) {
-        if (!rawPassword.isBlank()) {
-            if (id != null && !equalsPassword(rawPassword)) {
-                changedFields.add(Field.PASSWORD);
-            }
-            password = passwordEncoder.encode(rawPassword);
-
-            return true;
+    /**
+     * Replaces the password hash. The old password isn't compared, a change to
+     * the same password still counts as a change.
+     */
+    public void setPasswordHash(String passwordHash) {
+        if (id != null) {
+            changedFields.add(Field.PASSWORD);
         }
-
-        return false;
+        password = passwordHash;
     }
 
     public boolean setUsername(String username) {
@@ -316,6 +311,34 @@ public class User implements IUserBase,
         return false;
     }
 
+    public void setRoles(Set<RoleType> roles) {
+        if (id != null && !Objects.equals(roles, this.roles)) {
+            changedFields.add(Field.OTHER);
+        }
+        this.roles = roles;
+    }
+
+    public void setActive(boolean isActive) {
+        if (id != null && isActive != this.isActive) {
+            changedFields.add(Field.OTHER);
+        }
+        this.isActive = isActive;
+    }
+
+    public void setEmailVerified(boolean isEmailVerified) {
+        if (id != null && isEmailVerified != this.isEmailVerified) {
+            changedFields.add(Field.OTHER);
+        }
+        this.isEmailVerified = isEmailVerified;
+    }
+
+    public void setTimezone(String timezone) {
+        if (id != null && !Objects.equals(timezone, this.timezone)) {
+            changedFields.add(Field.OTHER);
+        }
+        this.timezone = timezone;
+    }
+
     public void resetAttempts() {
         changedFields.add(Field.ATTEMPTS_RESET);
     }
@@ -325,10 +348,29 @@ public class User implements IUserBase,
     }
 
     public void setLastTokenIssuedAt(TokenInfo info, boolean isLogin) {
+        setLastTokenIssuedAt(info.getIssuedAt().toInstant(), isLogin);
+    }
+
+    public void setLastTokenIssuedAt(Instant issuedAt, boolean isLogin) {
         if (isLogin) {
             changedFields.add(Field.LOGGED_TIME);
         }
-        lastTokenIssuedAt = info.getIssuedAt().toInstant();
+        changedFields.add(Field.TOKEN_ISSUED);
+        lastTokenIssuedAt = issuedAt;
+    }
+
+    /**
+     * Takes the stored values of the columns updated in SQL.
+     */
+    void syncBookkeeping(int failedAttempts, Instant lastTokenIssuedAt, Instant lastLoginAt, Instant prevLoginAt) {
+        this.failedAttempts = failedAttempts;
+        this.lastTokenIssuedAt = lastTokenIssuedAt;
+        this.lastLoginAt = lastLoginAt;
+        this.prevLoginAt = prevLoginAt;
+    }
+
+    void clearChanges() {
+        changedFields.clear();
     }
 
     public boolean hasChangedUsername() {
@@ -339,6 +381,10 @@ public class User implements IUserBase,
         return changedFields.contains(Field.EMAIL);
     }
 
+    public Set<Field> getChanges() {
+        return Collections.unmodifiableSet(changedFields);
+    }
+
     @Override
     public Set<String> getRoleNames() {
         return roles.stream().map(RoleType::name).collect(Collectors.toSet());
@@ -1,10 +1,13 @@
 package com.ilogos.user.user;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -15,15 +18,17 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.ilogos.user.common.TokenInfo;
 import com.ilogos.user.common.validation.annotation.ValidTimezone;
+import com.ilogos.user.common.web.CurrentToken;
 import com.ilogos.user.exception.ExceptionWithStatus;
-import com.ilogos.user.jwt.JwtService;
 import com.ilogos.user.response.ErrorResponse;
 import com.ilogos.user.response.SuccessResponse;
+import com.ilogos.user.user.importing.UserImportReport;
+import com.ilogos.user.user.importing.UserImportService;
 import com.ilogos.user.user.model.RoleType;
 import com.ilogos.user.user.model.UserDTO;
 
-import io.jsonwebtoken.ExpiredJwtException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -43,7 +48,7 @@ import lombok.extern.slf4j.Slf4j;
 public class UserController {
 
         private final UserService userService;
-        private final JwtService jwtService;
+        private final UserImportService userImportService;
 
         public record UpdateUserRequest(
                         Optional<String> email,
@@ -68,14 +73,8 @@ public class UserController {
         })
         @PutMapping("/update")
         public ResponseEntity<SuccessResponse<UserDTO>> updateUser(@RequestBody UpdateUserRequest request,
-                        @RequestHeader("Authorization") String authHeader) {
-                TokenInfo tokenInfo;
-                try {
-                        tokenInfo = jwtService.extractTokenInfoFromHeader(authHeader);
-                } catch (ExpiredJwtException ex) {
-                        throw new ExceptionWithStatus(HttpStatus.UNAUTHORIZED, ex);
-                }
-                var user = userService.updateSelf(tokenInfo, request).map(UserDTO::from);
+                        @Parameter(hidden = true) @CurrentToken TokenInfo tokenInfo) {
+                var user = userService.updateSelf(tokenInfo, userService.prepare(request)).map(UserDTO::from);
                 return user.map(e -> SuccessResponse.response(e))
                                 .orElseThrow(() -> new ExceptionWithStatus(HttpStatus.FORBIDDEN));
         }
@@ -93,15 +92,31 @@ public class UserController {
                 if (roles.size() == 0 && req.roles.contains(RoleType.ROLE_ADMIN)) {
                         throw new ExceptionWithStatus(HttpStatus.BAD_REQUEST, "Administrator registration is denied");
                 }
-                var user = userService.create(
+                // hashed before the transaction
+                var user = userService.create(userService.prepare(new UserService.NewUser(
                                 req.username,
                                 req.email,
                                 req.password,
                                 req.isActive.orElseGet(() -> true),
                                 roles,
-                                req.timezone);
+                                req.timezone)));
 
                 return SuccessResponse.response(HttpStatus.CREATED, UserDTO.from(user));
         }
 
+        @Operation(summary = "Bulk user import", description = "Streams CSV (header username,email,password,roles,timezone[,isActive], roles separated by ';') or NDJSON with the registration fields. Administrators only")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Import finished, see the per-row report"),
+                        @ApiResponse(responseCode = "400", description = "Unreadable input", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        })
+        @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+        public ResponseEntity<SuccessResponse<UserImportReport>> importUsers(
+                        @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                        InputStream body) {
+                var format = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                                ? UserImportService.Format.NDJSON
+                                : UserImportService.Format.CSV;
+                return SuccessResponse.response(userImportService.importUsers(body, format));
+        }
+
 }
@@ -0,0 +1,104 @@
+package com.ilogos.user.user;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+
+import com.ilogos.user.user.model.RoleType;
+import com.ilogos.user.user.model.UserInfo;
+import com.ilogos.user.user.replica.UserReplicaReads;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import user.User.UserExportItem;
+
+/**
+ * Walks {@code app_user}, or the users with one role, with keyset pagination
+ * on {@code id} and pushes items only while the transport is ready, so at most
+ * one page is held in memory no matter how slow the consumer is.
+ */
+@Slf4j
+class UserExportStream implements Runnable {
+
+    static final int DEFAULT_PAGE_SIZE = 500;
+    static final int MAX_PAGE_SIZE = 1_000;
+
+    private final UserInfoRepository userInfoRepository;
+    private final UserReplicaReads replicaReads;
+    private final ServerCallStreamObserver<UserExportItem> observer;
+    private final RoleType role;
+    private final int pageSize;
+
+    private final Deque<UserExportItem> buffer = new ArrayDeque<>();
+    private UUID lastId;
+    private boolean exhausted;
+    private volatile boolean finished;
+
+    UserExportStream(UserInfoRepository userInfoRepository, UserReplicaReads replicaReads,
+            ServerCallStreamObserver<UserExportItem> observer, UUID afterId, RoleType role, int pageSize) {
+        this.userInfoRepository = userInfoRepository;
+        this.replicaReads = replicaReads;
+        this.observer = observer;
+        this.role = role;
+        this.lastId = afterId;
+        this.pageSize = pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    void start() {
+        observer.setOnCancelHandler(() -> {
+            finished = true;
+            log.info("User export cancelled by client after {}", lastId);
+        });
+        observer.setOnReadyHandler(this);
+    }
+
+    /**
+     * Invoked by gRPC (serially) every time the transport becomes ready.
+     */
+    @Override
+    public void run() {
+        try {
+            while (!finished && observer.isReady()) {
+                if (buffer.isEmpty()) {
+                    if (exhausted) {
+                        finished = true;
+                        observer.onCompleted();
+                        return;
+                    }
+                    fetchPage();
+                    continue;
+                }
+                observer.onNext(buffer.poll());
+            }
+        } catch (RuntimeException ex) {
+            log.error("User export failed after {}", lastId, ex);
+            finished = true;
+            observer.onError(Status.INTERNAL.withDescription("Export failed").asRuntimeException());
+        }
+    }
+
+    private void fetchPage() {
+        var users = replicaReads.scan(() -> role != null
+                ? userInfoRepository.findAllByRole(role, lastId, pageSize)
+                : userInfoRepository.findPage(lastId, pageSize));
+        if (users.size() < pageSize) {
+            exhausted = true;
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+        lastId = users.get(users.size() - 1).getId();
+        users.stream().map(UserExportStream::toItem).forEach(buffer::add);
+    }
+
+    private static UserExportItem toItem(UserInfo user) {
+        var item = UserExportItem.newBuilder()
+                .setId(user.getId().toString())
+                .setUsername(user.getUsername())
+                .setEmail(user.getEmail())
+                .setActive(user.isActive());
+        user.getRoles().forEach(role -> item.addRoles(role.name()));
+        return item.build();
+    }
+}
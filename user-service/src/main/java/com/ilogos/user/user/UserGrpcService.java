@@ -1,22 +1,48 @@
 package com.ilogos.user.user;
 
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.grpc.server.service.GrpcService;
 
-import com.ilogos.user.common.model.IWithPassword;
-import com.ilogos.user.common.model.IWithRoles;
-import com.ilogos.user.user.model.IUserBase;
-import com.ilogos.user.user.model.UserDTO;
+import com.ilogos.user.exception.ExceptionWithStatus;
+import com.ilogos.user.user.cache.UserInfoCache;
+import com.ilogos.user.user.changes.UserChangeFeed;
+import com.ilogos.user.user.model.Login;
+import com.ilogos.user.user.model.RoleType;
+import com.ilogos.user.user.model.UserInfo;
+import com.ilogos.user.user.password.PasswordHashingService;
+import com.ilogos.user.user.replica.UserReplicaReads;
+import com.ilogos.user.user.throttle.ClientAddressInterceptor;
+import com.ilogos.user.user.throttle.LoginThrottle;
 
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import user.User.LoginFailureRequest;
+import user.User.LoginFailureResponse;
+import user.User.LoginSuccessRequest;
+import user.User.LoginSuccessResponse;
+import user.User.LookupStatus;
+import user.User.RehashPasswordRequest;
+import user.User.RehashPasswordResponse;
+import user.User.UserChangeEvent;
+import user.User.UserChangesRequest;
 import user.User.UserEmailOrUsernameRequest;
+import user.User.UserExportItem;
+import user.User.UserExportRequest;
 import user.User.UserIdRequest;
+import user.User.UserIdsRequest;
 import user.User.UserInfoResponse;
+import user.User.UserLoginsRequest;
+import user.User.UserLookupResponse;
 import user.UserServiceGrpc;
 
 @GrpcService
@@ -24,36 +50,83 @@ import user.UserServiceGrpc;
 @RequiredArgsConstructor
 public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
 
-    private final UserRepository userRepository;
+    private static final int MAX_BATCH_SIZE = 1_000;
 
-    private interface IUserInfo extends IUserBase, IWithRoles, IWithPassword {
+    private final UserInfoRepository userInfoRepository;
+    private final UserReplicaReads replicaReads;
+    private final UserChangeFeed userChangeFeed;
+    private final UserInfoCache userInfoCache;
+    private final PasswordHashingService passwordHashing;
+    private final UserService userService;
+    private final LoginThrottle loginThrottle;
+
+    private UserInfoResponse toResponse(UserInfo user) {
+        var response = UserInfoResponse.newBuilder()
+                .setId(user.getId().toString())
+                .setEmail(user.getEmail())
+                .setUsername(user.getUsername())
+                .setPassword(user.getPassword())
+                .setPasswordNeedsRehash(passwordHashing.needsRehash(user.getPassword()));
+        user.getRoles().forEach(role -> response.addRoles(role.name()));
+        return response.build();
     }
 
-    private static void sendUserInfo(StreamObserver<UserInfoResponse> responseObserver,
-            Optional<IUserInfo> userInfo) {
+    private void sendUserInfo(StreamObserver<UserInfoResponse> responseObserver,
+            Optional<UserInfo> userInfo) {
         userInfo.ifPresentOrElse(user -> {
-            UserDTO dto = UserDTO.from(user);
-            UserInfoResponse response = UserInfoResponse.newBuilder()
-                    .setId(dto.getId().toString())
-                    .setEmail(dto.getEmail())
-                    .addAllRoles(dto.getRoleNames())
-                    .setUsername(dto.getUsername())
-                    .setPassword(user.getPassword())
-                    .build();
-
-            responseObserver.onNext(response);
+            responseObserver.onNext(toResponse(user));
             responseObserver.onCompleted();
         }, () -> {
             responseObserver.onError(Status.NOT_FOUND.asRuntimeException());
         });
     }
 
+    private UserLookupResponse lookupResponse(String key, UserInfo user) {
+        var response = UserLookupResponse.newBuilder().setKey(key);
+        if (user == null) {
+            return response.setStatus(LookupStatus.NOT_FOUND).build();
+        }
+        return response.setStatus(LookupStatus.FOUND).setUser(toResponse(user)).build();
+    }
+
+    private static UserLookupResponse invalidLookupResponse(String key) {
+        return UserLookupResponse.newBuilder()
+                .setKey(key)
+                .setStatus(LookupStatus.INVALID_ARGUMENT)
+                .build();
+    }
+
+    private static boolean checkBatchSize(List<String> keys, StreamObserver<UserLookupResponse> responseObserver) {
+        if (keys.size() > MAX_BATCH_SIZE) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Batch size exceeds %d".formatted(MAX_BATCH_SIZE))
+                    .asRuntimeException());
+            return false;
+        }
+        return true;
+    }
+
+    private static Optional<UUID> parseId(String id) {
+        try {
+            return Optional.of(UUID.fromString(id));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
     @Override
     public void findUserByEmailOrUsername(UserEmailOrUsernameRequest request,
             StreamObserver<UserInfoResponse> responseObserver) {
-        var usernameOrEmail = request.getUsernameOrEmail();
-        var userInfo = userRepository.<IUserInfo>findByEmailOrUsername(usernameOrEmail, usernameOrEmail,
-                IUserInfo.class);
+        var login = Login.of(request.getUsernameOrEmail());
+        // auth-service looks users up by login only for login attempts, it reports failed ones
+        if (!loginThrottle.tryAcquire(login.value(), ClientAddressInterceptor.current())) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many login attempts")
+                    .asRuntimeException());
+            return;
+        }
+        var userInfo = userInfoCache.getByLogin(login,
+                it -> replicaReads.byLogin(it, () -> userInfoRepository.findByLogin(it)));
         sendUserInfo(responseObserver, userInfo);
     }
 
@@ -61,8 +134,155 @@ public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
     public void findUserById(UserIdRequest request,
             StreamObserver<UserInfoResponse> responseObserver) {
         var userId = request.getId();
-        var userInfo = userRepository.<IUserInfo>findUserById(UUID.fromString(userId), IUserInfo.class);
+        var userInfo = userInfoCache.getById(UUID.fromString(userId),
+                id -> replicaReads.byId(id, () -> userInfoRepository.findById(id)));
         sendUserInfo(responseObserver, userInfo);
     }
 
+    @Override
+    public void findUsersByIds(UserIdsRequest request,
+            StreamObserver<UserLookupResponse> responseObserver) {
+        var keys = request.getIdsList();
+        if (!checkBatchSize(keys, responseObserver)) {
+            return;
+        }
+
+        var ids = new HashSet<UUID>();
+        keys.forEach(key -> parseId(key).ifPresent(ids::add));
+
+        Map<UUID, UserInfo> users = new HashMap<>();
+        if (!ids.isEmpty()) {
+            replicaReads.byIds(ids, () -> userInfoRepository.findAllByIds(ids))
+                    .forEach(user -> users.put(user.getId(), user));
+        }
+
+        for (var key : keys) {
+            responseObserver.onNext(parseId(key)
+                    .map(id -> lookupResponse(key, users.get(id)))
+                    .orElseGet(() -> invalidLookupResponse(key)));
+        }
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void findUsersByLogins(UserLoginsRequest request,
+            StreamObserver<UserLookupResponse> responseObserver) {
+        var keys = request.getUsernamesOrEmailsList();
+        if (!checkBatchSize(keys, responseObserver)) {
+            return;
+        }
+
+        // usernames can't contain '@', so every login is either an email or a username
+        var emails = new HashSet<String>();
+        var usernames = new HashSet<String>();
+        for (var key : keys) {
+            var login = Login.of(key);
+            if (!login.isBlank()) {
+                (login.isEmail() ? emails : usernames).add(login.value());
+            }
+        }
+
+        Map<String, UserInfo> users = new HashMap<>();
+        if (!emails.isEmpty() || !usernames.isEmpty()) {
+            replicaReads.byLogins(emails, usernames, () -> userInfoRepository.findAllByLogins(emails, usernames))
+                    .forEach(user -> {
+                        users.put(Login.normalize(user.getEmail()), user);
+                        users.put(Login.normalize(user.getUsername()), user);
+                    });
+        }
+
+        for (var key : keys) {
+            var login = Login.of(key);
+            responseObserver.onNext(login.isBlank()
+                    ? invalidLookupResponse(key)
+                    : lookupResponse(key, users.get(login.value())));
+        }
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void exportUsers(UserExportRequest request,
+            StreamObserver<UserExportItem> responseObserver) {
+        UUID afterId = null;
+        if (!request.getAfterId().isEmpty()) {
+            var parsed = parseId(request.getAfterId());
+            if (parsed.isEmpty()) {
+                responseObserver.onError(Status.INVALID_ARGUMENT
+                        .withDescription("Invalid afterId")
+                        .asRuntimeException());
+                return;
+            }
+            afterId = parsed.get();
+        }
+        RoleType role = null;
+        if (!request.getRole().isEmpty()) {
+            try {
+                role = RoleType.valueOf(request.getRole());
+            } catch (IllegalArgumentException e) {
+                responseObserver.onError(Status.INVALID_ARGUMENT
+                        .withDescription("Invalid role")
+                        .asRuntimeException());
+                return;
+            }
+        }
+
+        new UserExportStream(userInfoRepository, replicaReads,
+                (ServerCallStreamObserver<UserExportItem>) responseObserver, afterId, role,
+                request.getPageSize()).start();
+    }
+
+    @Override
+    public void watchUserChanges(UserChangesRequest request,
+            StreamObserver<UserChangeEvent> responseObserver) {
+        userChangeFeed.subscribe(request, (ServerCallStreamObserver<UserChangeEvent>) responseObserver);
+    }
+
+    @Override
+    public void rehashPassword(RehashPasswordRequest request,
+            StreamObserver<RehashPasswordResponse> responseObserver) {
+        var id = parseId(request.getId());
+        if (id.isEmpty() || request.getPassword().isEmpty()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.asRuntimeException());
+            return;
+        }
+        try {
+            var rehashed = userService.rehashPassword(id.get(), request.getPassword());
+            responseObserver.onNext(RehashPasswordResponse.newBuilder().setRehashed(rehashed).build());
+            responseObserver.onCompleted();
+        } catch (ExceptionWithStatus ex) {
+            // hashing is overloaded, the next login retries
+            responseObserver.onError(Status.UNAVAILABLE.withDescription(ex.getMessage()).asRuntimeException());
+        }
+    }
+
+    @Override
+    public void reportLoginFailure(LoginFailureRequest request,
+            StreamObserver<LoginFailureResponse> responseObserver) {
+        var login = Login.of(request.getUsernameOrEmail());
+        if (login.isBlank()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.asRuntimeException());
+            return;
+        }
+        loginThrottle.recordFailure(login.value());
+        userService.recordLoginFailure(login);
+        responseObserver.onNext(LoginFailureResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void reportLoginSuccess(LoginSuccessRequest request,
+            StreamObserver<LoginSuccessResponse> responseObserver) {
+        var id = parseId(request.getId());
+        if (id.isEmpty() || request.getIssuedAt() <= 0) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.asRuntimeException());
+            return;
+        }
+        if (!userService.recordLogin(id.get(), Instant.ofEpochSecond(request.getIssuedAt()))) {
+            responseObserver.onError(Status.NOT_FOUND.asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(LoginSuccessResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+    }
+
 }
@@ -0,0 +1,23 @@
+package com.ilogos.user.user;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user.history")
+public class UserHistoryConfig {
+
+    public enum Mode {
+        // history rows written by UserService
+        APPLICATION,
+        // history rows written by triggers on app_user, see V4__history_triggers.sql
+        TRIGGER
+    }
+
+    // also passed to the database as ilogos.history_mode by the connection init sql
+    private Mode mode = Mode.APPLICATION;
+
+}
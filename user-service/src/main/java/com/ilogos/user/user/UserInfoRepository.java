@@ -0,0 +1,122 @@
+package com.ilogos.user.user;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.ilogos.user.user.model.Login;
+import com.ilogos.user.user.model.RoleType;
+import com.ilogos.user.user.model.UserInfo;
+
+/**
+ * Read model for authentication lookups: one row per user with roles
+ * aggregated into an array, or read from {@code roles_mask} with the mask
+ * storage, mapped straight to {@link UserInfo} without the persistence context.
+ */
+@Repository
+public class UserInfoRepository {
+
+    private static final String SELECT = """
+            select u.id, u.username, u.email, u.password, u.active, %s
+            from app_user u
+            """;
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean rolesMask;
+    private final String select;
+
+    public UserInfoRepository(JdbcTemplate jdbcTemplate, UserRolesConfig rolesConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rolesMask = rolesConfig.getStorage() == UserRolesConfig.Storage.MASK;
+        this.select = SELECT.formatted(rolesMask
+                ? "u.roles_mask"
+                : "array(select r.role from user_roles r where r.user_id = u.id) as roles");
+    }
+
+    private UserInfo mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Set<RoleType> roles;
+        if (rolesMask) {
+            roles = RoleType.fromMask(rs.getInt("roles_mask"));
+        } else {
+            var names = EnumSet.noneOf(RoleType.class);
+            for (var role : (String[]) rs.getArray("roles").getArray()) {
+                names.add(RoleType.valueOf(role));
+            }
+            roles = Collections.unmodifiableSet(names);
+        }
+        return new UserInfo(
+                rs.getObject("id", UUID.class),
+                rs.getString("username"),
+                rs.getString("email"),
+                rs.getString("password"),
+                rs.getBoolean("active"),
+                roles);
+    }
+
+    private Optional<UserInfo> findOne(String where, Object arg) {
+        return jdbcTemplate.query(select + where, this::mapRow, arg).stream().findFirst();
+    }
+
+    public Optional<UserInfo> findById(UUID id) {
+        return findOne("where u.id = ?", id);
+    }
+
+    /**
+     * @see UserRepository#findByLogin(Login, Class)
+     */
+    public Optional<UserInfo> findByLogin(Login login) {
+        if (login.isBlank()) {
+            return Optional.empty();
+        }
+        return login.isEmail()
+                ? findOne("where u.email = ?::citext", login.value())
+                : findOne("where u.username = ?::citext", login.value());
+    }
+
+    public List<UserInfo> findAllByIds(Collection<UUID> ids) {
+        return jdbcTemplate.query(select + "where u.id = any(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray())),
+                this::mapRow);
+    }
+
+    public List<UserInfo> findAllByLogins(Collection<String> emails, Collection<String> usernames) {
+        return jdbcTemplate.query(select + "where u.email = any(?::citext[]) or u.username = any(?::citext[])",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("text", emails.toArray()));
+                    ps.setArray(2, ps.getConnection().createArrayOf("text", usernames.toArray()));
+                },
+                this::mapRow);
+    }
+
+    /**
+     * Keyset page of all users ordered by id.
+     */
+    public List<UserInfo> findPage(UUID afterId, int limit) {
+        return jdbcTemplate.query(select + "where u.id > ? order by u.id limit ?", this::mapRow,
+                afterId != null ? afterId : MIN_ID, limit);
+    }
+
+    /**
+     * Page of users with a role, ordered by id. With the mask storage the bit is
+     * inlined so the planner matches the partial index of the role.
+     */
+    public List<UserInfo> findAllByRole(RoleType role, UUID afterId, int limit) {
+        var where = rolesMask
+                ? "where u.roles_mask & %d <> 0".formatted(role.getBit())
+                : "where exists (select 1 from user_roles r where r.user_id = u.id and r.role = '%s')"
+                        .formatted(role.name());
+        return jdbcTemplate.query(select + where + " and u.id > ? order by u.id limit ?", this::mapRow,
+                afterId != null ? afterId : MIN_ID, limit);
+    }
+}
@@ -1,15 +1,31 @@
 package com.ilogos.user.user;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.ilogos.user.common.model.IWithEmailHistory;
 import com.ilogos.user.common.model.IWithUsernameHistory;
+import com.ilogos.user.user.model.Login;
+import com.ilogos.user.user.model.UserTokenState;
 
-public interface UserRepository extends JpaRepository<User, UUID> {
+import jakarta.persistence.QueryHint;
+
+public interface UserRepository extends JpaRepository<User, UUID>, UserUpdateRepository {
+
+    interface ILogins {
+        String getUsername();
+
+        String getEmail();
+    }
 
     <T> Optional<T> findUserById(UUID id, Class<T> type);
 
@@ -17,7 +33,37 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     <T> Optional<T> findByUsername(String username, Class<T> type);
 
-    <T> Optional<T> findByEmailOrUsername(String email, String username, Class<T> type);
+    /**
+     * Usernames can't contain '@', so a login is looked up by a single equality
+     * on either the email or the username unique index.
+     */
+    default <T> Optional<T> findByLogin(Login login, Class<T> type) {
+        if (login.isBlank()) {
+            return Optional.empty();
+        }
+        return login.isEmail()
+                ? findByEmail(login.value(), type)
+                : findByUsername(login.value(), type);
+    }
+
+    default <T> Optional<T> findByLogin(String usernameOrEmail, Class<T> type) {
+        return findByLogin(Login.of(usernameOrEmail), type);
+    }
+
+    @Query("select new com.ilogos.user.user.model.UserTokenState(u.lastTokenIssuedAt, u.isActive) "
+            + "from User u where u.id = :id")
+    Optional<UserTokenState> findTokenStateById(UUID id);
+
+    boolean existsByUsername(String username);
+
+    boolean existsByEmail(String email);
+
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAllByIdIn(Collection<UUID> ids);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.username as username, u.email as email from User u")
+    Stream<ILogins> streamLogins();
 
     @EntityGraph(attributePaths = "usernameHistory")
     <T extends IWithUsernameHistory> Optional<T> findWithUsernameHistoryByUsername(String username, Class<T> type);
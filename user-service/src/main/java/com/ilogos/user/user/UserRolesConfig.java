@@ -0,0 +1,22 @@
+package com.ilogos.user.user;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user.roles")
+public class UserRolesConfig {
+
+    public enum Storage {
+        // user_roles rows
+        TABLE,
+        // app_user.roles_mask, kept in sync with user_roles by a trigger
+        MASK
+    }
+
+    private Storage storage = Storage.TABLE;
+
+}
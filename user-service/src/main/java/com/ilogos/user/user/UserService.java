@@ -2,9 +2,13 @@ package com.ilogos.user.user;
 
 import java.time.Instant;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -12,9 +16,16 @@ import com.ilogos.user.common.TokenInfo;
 import com.ilogos.user.exception.ExceptionWithStatus;
 import com.ilogos.user.jwt.JwtService;
 import com.ilogos.user.user.UserController.UpdateUserRequest;
+import com.ilogos.user.user.bookkeeping.LoginBookkeepingBuffer;
+import com.ilogos.user.user.cache.UserInfoCache;
+import com.ilogos.user.user.changes.UserChangedEvent;
 import com.ilogos.user.user.emailHistory.EmailHistory;
 import com.ilogos.user.user.emailHistory.EmailHistoryRepository;
+import com.ilogos.user.user.filter.LoginFilter;
+import com.ilogos.user.user.jwt.TokenEpochIndex;
+import com.ilogos.user.user.model.Login;
 import com.ilogos.user.user.model.RoleType;
+import com.ilogos.user.user.password.PasswordHashingService;
 import com.ilogos.user.user.usernameHistory.UsernameHistory;
 import com.ilogos.user.user.usernameHistory.UsernameHistoryRepository;
 
@@ -28,38 +39,144 @@ import lombok.extern.slf4j.Slf4j;
 public class UserService {
 
     private final JwtService jwtService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private final UserRepository userRepository;
+    private final UserInfoRepository userInfoRepository;
     private final UsernameHistoryRepository usernameHistoryRepository;
     private final EmailHistoryRepository emailHistoryRepository;
+    private final UserInfoCache userInfoCache;
+    private final LoginFilter loginFilter;
+    private final LoginBookkeepingBuffer loginBookkeeping;
+    private final UserHistoryConfig historyConfig;
+    private final PasswordHashingService passwordHashing;
+    private final TokenEpochIndex tokenEpochIndex;
 
     public record TokensData(String accessToken, String refreshToken) {
     }
 
+    // history rows are written by app_user triggers in the same statement
+    private boolean tracksHistoryByTrigger() {
+        return historyConfig.getMode() == UserHistoryConfig.Mode.TRIGGER;
+    }
+
+    /**
+     * Saves a user built by {@link #prepare(NewUser)}, the password is hashed
+     * before the transaction so it doesn't hold a connection.
+     */
     @Transactional
-    public User create(String username, String email, String password, boolean isActive,
-            Collection<RoleType> roles,
-            String timezone) {
-        User user = User.builder().username(username).email(email).password(password).roles(roles)
-                .isActive(isActive)
-                .timezone(timezone).build();
-        user = userRepository.save(user);
-
-        usernameHistoryRepository.findCurrentByUser(user).ifPresent(history -> {
-            history.setEndAt(Instant.now());
-            usernameHistoryRepository.save(history);
-        });
-        usernameHistoryRepository.save(new UsernameHistory(user));
+    public User create(User user) {
+        // definite filter misses skip the uniqueness queries, logins the filter hasn't seen
+        // yet (other instances) hit the unique constraints on flush, mapped to 400
+        if (!loginFilter.isAbsent(user.getUsername()) && userRepository.existsByUsername(user.getUsername())) {
+            throw new ExceptionWithStatus(HttpStatus.BAD_REQUEST, "Username already used");
+        }
+        if (!loginFilter.isAbsent(user.getEmail()) && userRepository.existsByEmail(user.getEmail())) {
+            throw new ExceptionWithStatus(HttpStatus.BAD_REQUEST, "Email already used");
+        }
 
-        emailHistoryRepository.findCurrentByUser(user).ifPresent(history -> {
-            history.setEndAt(Instant.now());
-            emailHistoryRepository.save(history);
-        });
-        emailHistoryRepository.save(new EmailHistory(user));
+        loginFilter.put(user);
+        user = userRepository.saveAndFlush(user);
+        userInfoCache.invalidate(user);
+
+        if (!tracksHistoryByTrigger()) {
+            usernameHistoryRepository.findCurrentByUser(user).ifPresent(history -> {
+                history.setEndAt(Instant.now());
+                usernameHistoryRepository.save(history);
+            });
+            usernameHistoryRepository.save(new UsernameHistory(user));
+
+            emailHistoryRepository.findCurrentByUser(user).ifPresent(history -> {
+                history.setEndAt(Instant.now());
+                emailHistoryRepository.save(history);
+            });
+            emailHistoryRepository.save(new EmailHistory(user));
+        }
+
+        eventPublisher.publishEvent(UserChangedEvent.created(user));
 
         return user;
     }
 
+    public record NewUser(String username, String email, String password, boolean isActive,
+            Collection<RoleType> roles, String timezone) {
+    }
+
+    /**
+     * Builds a new user, hashing the password on the hashing pool.
+     */
+    public User prepare(NewUser newUser) {
+        return build(newUser, newUser.password().isBlank() ? null : passwordHashing.encode(newUser.password()));
+    }
+
+    /**
+     * Builds a new user with an already hashed password.
+     */
+    public User build(NewUser newUser, String passwordHash) {
+        return User.builder().username(newUser.username()).email(newUser.email()).password(passwordHash)
+                .roles(newUser.roles())
+                .isActive(newUser.isActive())
+                .timezone(newUser.timezone()).build();
+    }
+
+    /**
+     * Registers users built by {@link #prepare(NewUser)} in one transaction.
+     * Users, their roles and history rows are written as ordered JDBC batches
+     * on flush, so callers should pass chunks of a few hundred users rather
+     * than a whole import.
+     */
+    @Transactional
+    public List<User> createAll(List<User> users) {
+        var usernames = new HashSet<String>();
+        var emails = new HashSet<String>();
+        for (var user : users) {
+            if (!usernames.add(Login.normalize(user.getUsername()))) {
+                throw new ExceptionWithStatus(HttpStatus.BAD_REQUEST, "Username already used");
+            }
+            if (!emails.add(Login.normalize(user.getEmail()))) {
+                throw new ExceptionWithStatus(HttpStatus.BAD_REQUEST, "Email already used");
+            }
+        }
+
+        // one query for all logins the filter can't rule out
+        usernames.removeIf(loginFilter::isAbsent);
+        emails.removeIf(loginFilter::isAbsent);
+        if (!usernames.isEmpty() || !emails.isEmpty()) {
+            userInfoRepository.findAllByLogins(emails, usernames).stream().findFirst().ifPresent(existing -> {
+                throw new ExceptionWithStatus(HttpStatus.BAD_REQUEST,
+                        usernames.contains(Login.normalize(existing.getUsername()))
+                                ? "Username already used"
+                                : "Email already used");
+            });
+        }
+
+        return insertAll(users);
+    }
+
+    /**
+     * Saves users built by {@link #prepare(NewUser)} without checking logins
+     * first, a taken login fails the whole transaction with a
+     * {@code DataIntegrityViolationException} from the flush.
+     */
+    @Transactional
+    public List<User> insertAll(List<User> users) {
+        users.forEach(loginFilter::put);
+        userRepository.saveAll(users);
+
+        if (!tracksHistoryByTrigger()) {
+            usernameHistoryRepository.saveAll(users.stream().map(UsernameHistory::new).toList());
+            emailHistoryRepository.saveAll(users.stream().map(EmailHistory::new).toList());
+        }
+        userRepository.flush();
+
+        users.forEach(user -> {
+            userInfoCache.invalidate(user);
+            eventPublisher.publishEvent(UserChangedEvent.created(user));
+        });
+
+        return users;
+    }
+
     public record UserWithTokens(User user, TokensData tokens) {
     }
 
@@ -67,11 +184,11 @@ public class UserService {
             String usernameOrEmail,
             String password,
             Function<User, TokensData> generator) {
-        return userRepository.<User>findByEmailOrUsername(usernameOrEmail, usernameOrEmail, User.class).map(user -> {
+        return userRepository.findByLogin(usernameOrEmail, User.class).map(user -> {
             var tokens = generator.apply(user);
 
             user.setLastTokenIssuedAt(jwtService.getTokenInfo(tokens.accessToken), true);
-            update(user);
+            updateBookkeeping(user);
 
             return new UserWithTokens(user, tokens);
         });
@@ -85,7 +202,7 @@ public class UserService {
 
             var tokens = generator.apply(user);
             user.setLastTokenIssuedAt(jwtService.getTokenInfo(tokens.accessToken), false);
-            update(user);
+            updateBookkeeping(user);
 
             log.info("Token refresh success: {}", username);
 
@@ -100,30 +217,139 @@ public class UserService {
     @Transactional
     public User update(User user) {
         user.preUpdate();
-        user = userRepository.save(user);
+        if (!userRepository.updateChanges(user)) {
+            return user;
+        }
+        loginFilter.put(user);
+        userInfoCache.invalidate(user);
 
-        if (user.hasChangedUsername()) {
-            usernameHistoryRepository.save(new UsernameHistory(user));
+        if (!tracksHistoryByTrigger()) {
+            if (user.hasChangedUsername()) {
+                usernameHistoryRepository.closeCurrentByUser(user, Instant.now());
+                usernameHistoryRepository.save(new UsernameHistory(user));
+            }
+
+            if (user.hasChangedEmail()) {
+                emailHistoryRepository.closeCurrentByUser(user, Instant.now());
+                emailHistoryRepository.save(new EmailHistory(user));
+            }
         }
 
-        if (user.hasChangedEmail()) {
-            emailHistoryRepository.save(new EmailHistory(user));
+        trackTokenEpoch(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(user));
+        user.clearChanges();
+
+        return user;
+    }
+
+    private void trackTokenEpoch(User user) {
+        if (user.getChanges().contains(User.Field.TOKEN_ISSUED)) {
+            tokenEpochIndex.advance(user.getId(), user.getLastTokenIssuedAt());
         }
+    }
 
+    /**
+     * Saves login/refresh bookkeeping only, buffered in write-behind mode.
+     */
+    private User updateBookkeeping(User user) {
+        if (!loginBookkeeping.isWriteBehind() || user.getChanges().contains(User.Field.OTHER)) {
+            return update(user);
+        }
+        user.preUpdate();
+        loginBookkeeping.record(user);
+        trackTokenEpoch(user);
+        user.clearChanges();
         return user;
     }
 
     public User updateFailedAttempts(User user) {
         user.incrementAttempts();
-        return update(user);
+        return updateBookkeeping(user);
     }
 
-    public Optional<User> updateSelf(TokenInfo tokenInfo, UpdateUserRequest request) {
+    /**
+     * Records a login for which auth-service issued tokens at
+     * {@code issuedAt}: moves the login times, resets the failed attempts and
+     * supersedes the user's tokens issued before. Bookkeeping only, buffered
+     * in write-behind mode.
+     *
+     * @return false if the user doesn't exist
+     */
+    public boolean recordLogin(UUID id, Instant issuedAt) {
+        // a clock ahead of ours mustn't revoke the tokens issued next
+        var epoch = issuedAt.isAfter(Instant.now()) ? Instant.now() : issuedAt;
+        return userRepository.findById(id).map(user -> {
+            user.setLastTokenIssuedAt(epoch, true);
+            updateBookkeeping(user);
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Counts a failed password check against the user's stored attempts.
+     *
+     * @return false if no user has this login
+     */
+    public boolean recordLoginFailure(Login login) {
+        return userRepository.findByLogin(login, User.class).map(user -> {
+            updateFailedAttempts(user);
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Upgrades the hash of a password the caller has just verified to the
+     * current algorithm and work factor. The password is verified again, so a
+     * wrong one never replaces the hash. Not transactional, the hashing
+     * shouldn't hold a connection.
+     *
+     * @return whether the hash was replaced
+     */
+    public boolean rehashPassword(UUID id, String rawPassword) {
+        var user = userRepository.findById(id).orElse(null);
+        if (user == null) {
+            return false;
+        }
+        var hash = user.getPassword();
+        if (!passwordHashing.needsRehash(hash) || !passwordHashing.matches(rawPassword, hash)) {
+            return false;
+        }
+        var newHash = passwordHashing.encode(rawPassword);
+        if (!userRepository.replacePasswordHash(user, hash, newHash)) {
+            return false;
+        }
+        // detached by replacePasswordHash, only marks the change for the event
+        user.setPasswordHash(newHash);
+        userInfoCache.invalidate(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(user));
+        log.info("Password rehashed: {}", user.getUsername());
+
+        return true;
+    }
+
+    public record UserChanges(Optional<String> email, Optional<String> passwordHash,
+            Optional<String> username) {
+    }
+
+    /**
+     * Hashes the new password of an update, if any, on the hashing pool. Call
+     * it before {@link #updateSelf(TokenInfo, UserChanges)}, outside a
+     * transaction.
+     */
+    public UserChanges prepare(UpdateUserRequest request) {
+        return new UserChanges(request.email(),
+                request.password().filter(it -> !it.isBlank()).map(passwordHashing::encode),
+                request.username());
+    }
+
+    // update() is self-invoked, so the row update and history rows share this transaction
+    @Transactional
+    public Optional<User> updateSelf(TokenInfo tokenInfo, UserChanges changes) {
         Optional<User> user = userRepository.findById(tokenInfo.getId());
         return user.map(e -> {
-            request.email().ifPresent(e::setEmail);
-            request.password().ifPresent(e::setPassword);
-            request.username().ifPresent(e::setUsername);
+            changes.email().ifPresent(e::setEmail);
+            changes.passwordHash().ifPresent(e::setPasswordHash);
+            changes.username().ifPresent(e::setUsername);
 
             return update(e);
         });
@@ -0,0 +1,25 @@
+package com.ilogos.user.user;
+
+public interface UserUpdateRepository {
+
+    /**
+     * Writes only the columns of the changed {@link User.Field}s of a user after
+     * {@link User#preUpdate()}, with counters updated in SQL. The user is
+     * detached so the persistence context doesn't write it again on flush.
+     * Changes to columns without a targeted update ({@link User.Field#OTHER})
+     * save the whole entity instead.
+     *
+     * @return false if there was nothing to write or the user no longer exists
+     */
+    boolean updateChanges(User user);
+
+    /**
+     * Replaces the password hash with a rehash of the same password, unless the
+     * password was changed meanwhile. Not a password change, so
+     * {@code password_changed_at} and {@code updated_at} are kept.
+     *
+     * @return false if the stored hash is no longer {@code expectedHash}
+     */
+    boolean replacePasswordHash(User user, String expectedHash, String passwordHash);
+
+}
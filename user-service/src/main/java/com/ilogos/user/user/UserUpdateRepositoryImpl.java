@@ -0,0 +1,120 @@
+package com.ilogos.user.user;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ilogos.user.user.cache.UserEntityCache;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+class UserUpdateRepositoryImpl implements UserUpdateRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserEntityCache userEntityCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public boolean updateChanges(User user) {
+        var changes = user.getChanges();
+        if (changes.isEmpty()) {
+            return false;
+        }
+        if (changes.contains(User.Field.OTHER)) {
+            // preUpdate applied the tracked changes to the entity, its counters aren't atomic here
+            entityManager.merge(user);
+            entityManager.flush();
+            userEntityCache.evict(user.getId());
+            return true;
+        }
+        if (entityManager.contains(user)) {
+            entityManager.detach(user);
+        }
+
+        List<String> columns = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        if (changes.contains(User.Field.USERNAME)) {
+            columns.add("username = ?::citext");
+            params.add(user.getUsername());
+        }
+        if (changes.contains(User.Field.EMAIL)) {
+            columns.add("email = ?::citext");
+            params.add(user.getEmail());
+        }
+        if (changes.contains(User.Field.PASSWORD)) {
+            columns.add("password = ?");
+            params.add(user.getPassword());
+            columns.add("password_changed_at = ?");
+            params.add(timestamp(user.getPasswordChangedAt()));
+        }
+        if (changes.contains(User.Field.USERNAME)
+                || changes.contains(User.Field.EMAIL)
+                || changes.contains(User.Field.PASSWORD)) {
+            columns.add("updated_at = ?");
+            params.add(timestamp(user.getUpdatedAt()));
+        }
+
+        if (changes.contains(User.Field.ATTEMPTS_INCREMENT)) {
+            columns.add("failed_attempts = failed_attempts + 1");
+        } else if (changes.contains(User.Field.ATTEMPTS_RESET) || changes.contains(User.Field.LOGGED_TIME)) {
+            columns.add("failed_attempts = 0");
+            if (changes.contains(User.Field.LOGGED_TIME)) {
+                columns.add("prev_login_at = last_login_at");
+                columns.add("last_login_at = ?");
+                params.add(timestamp(user.getLastLoginAt()));
+            }
+        }
+
+        if (changes.contains(User.Field.TOKEN_ISSUED)) {
+            columns.add("last_token_issued_at = greatest(last_token_issued_at, ?)");
+            params.add(timestamp(user.getLastTokenIssuedAt()));
+        }
+
+        params.add(user.getId());
+        var sql = "update app_user set " + String.join(", ", columns)
+                + " where id = ? returning failed_attempts, last_token_issued_at, last_login_at, prev_login_at";
+
+        var updated = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            user.syncBookkeeping(
+                    rs.getInt("failed_attempts"),
+                    instant(rs.getTimestamp("last_token_issued_at")),
+                    instant(rs.getTimestamp("last_login_at")),
+                    instant(rs.getTimestamp("prev_login_at")));
+            return true;
+        }, params.toArray());
+        userEntityCache.evict(user.getId());
+
+        return !updated.isEmpty();
+    }
+
+    @Override
+    public boolean replacePasswordHash(User user, String expectedHash, String passwordHash) {
+        if (entityManager.contains(user)) {
+            entityManager.detach(user);
+        }
+        int updated = jdbcTemplate.update("update app_user set password = ? where id = ? and password = ?",
+                passwordHash, user.getId(), expectedHash);
+        userEntityCache.evict(user.getId());
+
+        return updated > 0;
+    }
+
+    private static Timestamp timestamp(Instant value) {
+        return value != null ? Timestamp.from(value) : null;
+    }
+
+    private static Instant instant(Timestamp value) {
+        return value != null ? value.toInstant() : null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ilogos.user.user.bookkeeping;
+
+import java.time.Instant;
+
+import com.ilogos.user.user.User;
+
+/**
+ * Coalesced bookkeeping changes of one user. A {@code null} time leaves the
+ * column as is, a {@code null} {@code prevLoginAt} with a login set takes the
+ * stored {@code last_login_at}.
+ */
+public record LoginBookkeeping(
+        Instant lastTokenIssuedAt,
+        Instant lastLoginAt,
+        Instant prevLoginAt,
+        boolean attemptsReset,
+        int attemptsIncrement) {
+
+    /**
+     * @param user user after {@link User#preUpdate()}
+     */
+    public static LoginBookkeeping of(User user) {
+        var changes = user.getChanges();
+        var tokenIssuedAt = changes.contains(User.Field.TOKEN_ISSUED) ? user.getLastTokenIssuedAt() : null;
+        if (changes.contains(User.Field.ATTEMPTS_INCREMENT)) {
+            return new LoginBookkeeping(tokenIssuedAt, null, null, false, 1);
+        }
+        boolean isLogin = changes.contains(User.Field.LOGGED_TIME);
+        return new LoginBookkeeping(
+                tokenIssuedAt,
+                isLogin ? user.getLastLoginAt() : null,
+                null,
+                isLogin || changes.contains(User.Field.ATTEMPTS_RESET),
+                0);
+    }
+
+    /**
+     * @return changes of this followed by {@code next}
+     */
+    public LoginBookkeeping then(LoginBookkeeping next) {
+        boolean nextIsLogin = next.lastLoginAt != null;
+        return new LoginBookkeeping(
+                latest(lastTokenIssuedAt, next.lastTokenIssuedAt),
+                nextIsLogin ? next.lastLoginAt : lastLoginAt,
+                nextIsLogin ? (next.prevLoginAt != null ? next.prevLoginAt : lastLoginAt) : prevLoginAt,
+                attemptsReset || next.attemptsReset,
+                next.attemptsReset ? next.attemptsIncrement : attemptsIncrement + next.attemptsIncrement);
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,183 @@
+package com.ilogos.user.user.bookkeeping;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ilogos.user.user.User;
+import com.ilogos.user.user.cache.UserEntityCache;
+import com.ilogos.user.user.changes.UserChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind buffer for the login/refresh bookkeeping columns
+ * ({@code last_token_issued_at}, {@code last_login_at}, {@code prev_login_at},
+ * {@code failed_attempts}).
+ * <p>
+ * Changes are coalesced per user in call order and written in batched updates
+ * every {@code flush-interval}, once {@code max-pending} users are waiting and
+ * on shutdown. Each batch is one transaction: a failed batch is merged back in
+ * front of newer changes and retried on the next flush. Pending changes are
+ * lost if the process dies, {@code last_token_issued_at} never moves backwards.
+ * All updates are relative to the stored row, so full updates of the user in
+ * between don't conflict with them. {@link UserChangedEvent}s of the buffered
+ * changes are published once they are written, so listeners reloading the
+ * user see them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginBookkeepingBuffer {
+
+    private static final String UPDATE_SQL = """
+            update app_user set
+                last_token_issued_at = greatest(last_token_issued_at, ?),
+                prev_login_at = case when ? then coalesce(?, last_login_at) else prev_login_at end,
+                last_login_at = coalesce(?, last_login_at),
+                failed_attempts = (case when ? then 0 else failed_attempts end) + ?
+            where id = ?""";
+
+    private final LoginBookkeepingConfig config;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEntityCache userEntityCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private record Pending(LoginBookkeeping changes, UserChangedEvent event) {
+
+        Pending then(Pending next) {
+            var fields = EnumSet.noneOf(User.Field.class);
+            fields.addAll(event.fields());
+            fields.addAll(next.event.fields());
+            return new Pending(changes.then(next.changes), new UserChangedEvent(next.event.id(),
+                    next.event.username(), next.event.email(), fields, false, next.event.changedAt()));
+        }
+    }
+
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (!config.isWriteBehind()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "login-bookkeeping-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isWriteBehind() {
+        return config.isWriteBehind();
+    }
+
+    /**
+     * Buffers the bookkeeping changes of a user after {@link User#preUpdate()}.
+     */
+    public void record(User user) {
+        pending.merge(user.getId(), new Pending(LoginBookkeeping.of(user), UserChangedEvent.updated(user)),
+                Pending::then);
+        if (pending.size() >= config.getMaxPending() && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushScheduled.set(false);
+                flushSafely();
+            });
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Login bookkeeping flush failed, {} users pending", pending.size(), e);
+        }
+    }
+
+    public synchronized void flush() {
+        var batch = new ArrayList<Map.Entry<UUID, Pending>>(config.getBatchSize());
+        for (var id : pending.keySet()) {
+            var changes = pending.remove(id);
+            if (changes != null) {
+                batch.add(Map.entry(id, changes));
+            }
+            if (batch.size() >= config.getBatchSize()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<Map.Entry<UUID, Pending>> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, batch,
+                    batch.size(), LoginBookkeepingBuffer::setValues));
+        } catch (RuntimeException e) {
+            // the failed changes are older than any recorded meanwhile
+            batch.forEach(it -> pending.merge(it.getKey(), it.getValue(), (newer, failed) -> failed.then(newer)));
+            throw e;
+        }
+        batch.forEach(it -> {
+            userEntityCache.evict(it.getKey());
+            eventPublisher.publishEvent(it.getValue().event());
+        });
+    }
+
+    private static void setValues(PreparedStatement ps, Map.Entry<UUID, Pending> entry)
+            throws SQLException {
+        var changes = entry.getValue().changes();
+        setInstant(ps, 1, changes.lastTokenIssuedAt());
+        ps.setBoolean(2, changes.lastLoginAt() != null);
+        setInstant(ps, 3, changes.prevLoginAt());
+        setInstant(ps, 4, changes.lastLoginAt());
+        ps.setBoolean(5, changes.attemptsReset());
+        ps.setInt(6, changes.attemptsIncrement());
+        ps.setObject(7, entry.getKey());
+    }
+
+    private static void setInstant(PreparedStatement ps, int index, Instant value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.from(value));
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(config.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+        flushSafely();
+    }
+}
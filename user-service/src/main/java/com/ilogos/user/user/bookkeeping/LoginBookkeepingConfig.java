@@ -0,0 +1,25 @@
+package com.ilogos.user.user.bookkeeping;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user.bookkeeping")
+public class LoginBookkeepingConfig {
+
+    // buffer login/refresh bookkeeping columns instead of an update transaction per login
+    private boolean writeBehind = false;
+
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    // pending users that trigger an early flush
+    private int maxPending = 1_000;
+
+    private int batchSize = 500;
+
+}
@@ -0,0 +1,46 @@
+package com.ilogos.user.user.cache;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ilogos.user.user.User;
+import com.ilogos.user.user.changes.UserChangedEvent;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Evicts users from the Hibernate second-level cache. Updates are written in
+ * SQL rather than through the session, so Hibernate can't keep the
+ * {@code user} and {@code user.roles} regions current itself. Users are evicted
+ * right after the write and once more after commit, in case another request
+ * cached the old row in between.
+ */
+@Component
+public class UserEntityCache {
+
+    private static final String ROLES_ROLE = User.class.getName() + ".roles";
+
+    private final org.hibernate.Cache cache;
+
+    public UserEntityCache(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    public void evict(UUID id) {
+        cache.evictEntityData(User.class, id);
+        cache.evictCollectionData(ROLES_ROLE, id);
+    }
+
+    public void evictAll(Collection<UUID> ids) {
+        ids.forEach(this::evict);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.id());
+    }
+}
@@ -0,0 +1,116 @@
+package com.ilogos.user.user.cache;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ilogos.user.user.changes.UserChangedEvent;
+import com.ilogos.user.user.model.IUserBase;
+import com.ilogos.user.user.model.Login;
+import com.ilogos.user.user.model.UserInfo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of {@link UserInfo} keyed by id, with a secondary index
+ * from normalized username/email to id. Entries are bounded by size and TTL and
+ * invalidated synchronously on every write of this instance, and once more
+ * after commit.
+ */
+@Component
+public class UserInfoCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, UserInfo> byId;
+    private final Cache<String, UUID> idByLogin;
+
+    // bumped on every invalidation, so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserInfoCache(UserCacheConfig config, MeterRegistry meterRegistry) {
+        enabled = config.isEnabled();
+        byId = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        idByLogin = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize() * 2)
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "user.info.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByLogin, "user.info.by-login");
+    }
+
+    public Optional<UserInfo> getById(UUID id, Function<UUID, Optional<UserInfo>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        var cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return load(id, loader);
+    }
+
+    public Optional<UserInfo> getByLogin(Login login, Function<Login, Optional<UserInfo>> loader) {
+        if (!enabled) {
+            return loader.apply(login);
+        }
+        var id = idByLogin.getIfPresent(login.value());
+        if (id != null) {
+            var cached = byId.getIfPresent(id);
+            // the login may have moved to another user since it was indexed
+            if (cached != null && login.matches(cached)) {
+                return Optional.of(cached);
+            }
+        }
+        return load(login, loader);
+    }
+
+    private <K> Optional<UserInfo> load(K key, Function<K, Optional<UserInfo>> loader) {
+        long loadGeneration = generation.get();
+        var loaded = loader.apply(key);
+        loaded.ifPresent(info -> {
+            if (generation.get() == loadGeneration) {
+                byId.put(info.getId(), info);
+                idByLogin.put(Login.normalize(info.getUsername()), info.getId());
+                idByLogin.put(Login.normalize(info.getEmail()), info.getId());
+            }
+        });
+        return loaded;
+    }
+
+    public void invalidate(IUserBase user) {
+        generation.incrementAndGet();
+        var cached = byId.getIfPresent(user.getId());
+        if (cached != null) {
+            idByLogin.invalidate(Login.normalize(cached.getUsername()));
+            idByLogin.invalidate(Login.normalize(cached.getEmail()));
+        }
+        byId.invalidate(user.getId());
+        if (user.getUsername() != null) {
+            idByLogin.invalidate(Login.normalize(user.getUsername()));
+        }
+        if (user.getEmail() != null) {
+            idByLogin.invalidate(Login.normalize(user.getEmail()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        generation.incrementAndGet();
+        byId.invalidate(event.id());
+        idByLogin.invalidate(Login.normalize(event.username()));
+        idByLogin.invalidate(Login.normalize(event.email()));
+    }
+}
@@ -0,0 +1,106 @@
+package com.ilogos.user.user.changes;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ilogos.user.user.User;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import user.User.UserChangeEvent;
+import user.User.UserChangesRequest;
+import user.User.UserField;
+
+/**
+ * In-process change feed of committed user changes. Sequence numbers are only
+ * meaningful within one {@code epoch} (one running instance); consumers resume
+ * with the last received epoch and sequence and get a resync marker when the
+ * retained history no longer covers the gap.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserChangeFeed {
+
+    private static final Map<User.Field, UserField> PUBLISHED_FIELDS = Map.of(
+            User.Field.USERNAME, UserField.FIELD_USERNAME,
+            User.Field.EMAIL, UserField.FIELD_EMAIL,
+            User.Field.PASSWORD, UserField.FIELD_PASSWORD);
+
+    private final UserChangeFeedConfig config;
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final Deque<UserChangeEvent> history = new ArrayDeque<>();
+    private final Set<UserChangeSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private long sequence;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        var message = UserChangeEvent.newBuilder()
+                .setEpoch(epoch)
+                .setId(event.id().toString())
+                .setUsername(event.username())
+                .setEmail(event.email())
+                .setChangedAt(event.changedAt().toEpochMilli());
+        if (event.created()) {
+            message.addFields(UserField.FIELD_CREATED);
+        }
+        event.fields().stream()
+                .map(PUBLISHED_FIELDS::get)
+                .filter(it -> it != null)
+                .sorted()
+                .forEach(message::addFields);
+        if (message.getFieldsCount() == 0) {
+            return;
+        }
+
+        synchronized (history) {
+            var published = message.setSequence(++sequence).build();
+            history.addLast(published);
+            while (history.size() > config.getHistorySize()) {
+                history.removeFirst();
+            }
+            subscriptions.forEach(it -> it.offer(published));
+        }
+        subscriptions.forEach(UserChangeSubscription::run);
+    }
+
+    public void subscribe(UserChangesRequest request, ServerCallStreamObserver<UserChangeEvent> observer) {
+        var subscription = new UserChangeSubscription(observer, config.getSubscriberBufferSize());
+        subscription.start(() -> subscriptions.remove(subscription));
+        synchronized (history) {
+            if (!request.getEpoch().isEmpty()) {
+                long after = request.getAfterSequence();
+                long oldest = history.isEmpty() ? sequence + 1 : history.getFirst().getSequence();
+                if (epoch.equals(request.getEpoch()) && after >= oldest - 1 && after <= sequence) {
+                    history.stream()
+                            .filter(it -> it.getSequence() > after)
+                            .forEach(subscription::offer);
+                } else {
+                    log.info("User change feed can't resume {}:{}, sending resync", request.getEpoch(), after);
+                    subscription.offer(UserChangeEvent.newBuilder()
+                            .setEpoch(epoch)
+                            .setSequence(sequence)
+                            .setResync(true)
+                            .build());
+                }
+            }
+            subscriptions.add(subscription);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        subscriptions.forEach(UserChangeSubscription::complete);
+        subscriptions.clear();
+    }
+}
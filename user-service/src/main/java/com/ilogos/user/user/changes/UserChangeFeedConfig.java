@@ -0,0 +1,17 @@
+package com.ilogos.user.user.changes;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user.change-feed")
+public class UserChangeFeedConfig {
+
+    private int historySize = 10_000;
+
+    private int subscriberBufferSize = 1_000;
+
+}
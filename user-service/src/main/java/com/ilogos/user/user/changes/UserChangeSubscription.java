@@ -0,0 +1,74 @@
+package com.ilogos.user.user.changes;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import user.User.UserChangeEvent;
+
+/**
+ * Bounded per-stream queue of change events. Events are written only while the
+ * transport is ready; a subscriber that falls more than {@code capacity} events
+ * behind loses its backlog and receives a single resync marker instead.
+ */
+@Slf4j
+class UserChangeSubscription implements Runnable {
+
+    private final ServerCallStreamObserver<UserChangeEvent> observer;
+    private final int capacity;
+    private final Queue<UserChangeEvent> queue = new ArrayDeque<>();
+    private boolean closed;
+
+    UserChangeSubscription(ServerCallStreamObserver<UserChangeEvent> observer, int capacity) {
+        this.observer = observer;
+        this.capacity = capacity;
+    }
+
+    void start(Runnable onCancel) {
+        observer.setOnCancelHandler(() -> {
+            synchronized (this) {
+                closed = true;
+                queue.clear();
+            }
+            onCancel.run();
+        });
+        observer.setOnReadyHandler(this);
+    }
+
+    synchronized void offer(UserChangeEvent event) {
+        if (closed) {
+            return;
+        }
+        if (queue.size() >= capacity) {
+            log.warn("User change subscriber fell behind at sequence {}, sending resync", event.getSequence());
+            queue.clear();
+            queue.add(UserChangeEvent.newBuilder()
+                    .setEpoch(event.getEpoch())
+                    .setSequence(event.getSequence())
+                    .setResync(true)
+                    .build());
+            return;
+        }
+        queue.add(event);
+    }
+
+    /**
+     * Drains queued events while the transport is ready. Called by gRPC on
+     * readiness changes and by the feed after every publication.
+     */
+    @Override
+    public synchronized void run() {
+        while (!closed && !queue.isEmpty() && observer.isReady()) {
+            observer.onNext(queue.poll());
+        }
+    }
+
+    synchronized void complete() {
+        if (!closed) {
+            closed = true;
+            queue.clear();
+            observer.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ilogos.user.user.changes;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+import com.ilogos.user.user.User;
+
+/**
+ * Published by {@code UserService} for every saved user, delivered to listeners after commit.
+ */
+public record UserChangedEvent(
+        UUID id,
+        String username,
+        String email,
+        Set<User.Field> fields,
+        boolean created,
+        Instant changedAt) {
+
+    public static UserChangedEvent created(User user) {
+        return new UserChangedEvent(user.getId(), user.getUsername(), user.getEmail(),
+                Set.of(), true, Instant.now());
+    }
+
+    public static UserChangedEvent updated(User user) {
+        var fields = user.getChanges().isEmpty()
+                ? EnumSet.noneOf(User.Field.class)
+                : EnumSet.copyOf(user.getChanges());
+        return new UserChangedEvent(user.getId(), user.getUsername(), user.getEmail(),
+                fields, false, Instant.now());
+    }
+}
@@ -1,13 +1,24 @@
 package com.ilogos.user.user.emailHistory;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.ilogos.user.user.User;
 
 public interface EmailHistoryRepository extends JpaRepository<EmailHistory, Long> {
 
-    Optional<EmailHistory> findCurrentByUser(User user); // findByUserAndEndAtIsNull
+    @Query("select h from EmailHistory h where h.user = :user and h.endAt is null")
+    Optional<EmailHistory> findCurrentByUser(User user);
+
+    // joins the caller's transaction, declared queries don't get one by default
+    @Transactional
+    @Modifying
+    @Query("update EmailHistory h set h.endAt = :endAt where h.user = :user and h.endAt is null")
+    int closeCurrentByUser(User user, Instant endAt);
 
 }
@@ -0,0 +1,134 @@
+package com.ilogos.user.user.filter;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ilogos.user.common.filter.BloomFilter;
+import com.ilogos.user.user.UserRepository;
+import com.ilogos.user.user.model.IUserBase;
+import com.ilogos.user.user.model.Login;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Probabilistic set of stored usernames and emails, lets registration skip
+ * the uniqueness queries for logins that were never stored. A negative answer
+ * is only definite for logins written by this instance: logins of other
+ * instances and out-of-band inserts are picked up by the rebuild every
+ * {@code rebuild-interval}, until then the unique constraints reject them. It
+ * must not answer lookups. Former values only add false positives.
+ */
+@Slf4j
+@Component
+public class LoginFilter {
+
+    private final LoginFilterConfig config;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnly;
+    private volatile BloomFilter filter;
+    // receives the puts made while a rebuild streams the table
+    private volatile BloomFilter building;
+    private ScheduledExecutorService scheduler;
+
+    public LoginFilter(LoginFilterConfig config, UserRepository userRepository,
+            PlatformTransactionManager transactionManager) {
+        this.config = config;
+        this.userRepository = userRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        build();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "login-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getRebuildInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::buildSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void buildSafely() {
+        try {
+            build();
+        } catch (Exception e) {
+            log.error("Login filter rebuild failed", e);
+        }
+    }
+
+    /**
+     * Builds a new filter from the stored logins and swaps it in.
+     */
+    void build() {
+        long start = System.currentTimeMillis();
+        var next = BloomFilter.create(config.getExpectedInsertions(), config.getFalsePositiveRate(),
+                config.getMaxMemory().toBytes() * Byte.SIZE);
+        building = next;
+        long count;
+        try {
+            count = readOnly.execute(status -> {
+                long[] users = { 0 };
+                try (var logins = userRepository.streamLogins()) {
+                    logins.forEach(it -> {
+                        next.put(Login.normalize(it.getUsername()));
+                        next.put(Login.normalize(it.getEmail()));
+                        users[0]++;
+                    });
+                }
+                return users[0];
+            });
+            filter = next;
+        } finally {
+            building = null;
+        }
+        log.info("Login filter built for {} users in {} ms: {} bits, {} hashes, {} KiB", count,
+                System.currentTimeMillis() - start, next.getBitSize(), next.getHashCount(),
+                next.memoryBytes() / 1024);
+    }
+
+    public void put(IUserBase user) {
+        put(filter, user);
+        put(building, user);
+    }
+
+    private static void put(BloomFilter target, IUserBase user) {
+        if (target != null) {
+            target.put(Login.normalize(user.getUsername()));
+            target.put(Login.normalize(user.getEmail()));
+        }
+    }
+
+    /**
+     * @return true if no user had this username/email when the filter was
+     *         last built and this instance hasn't stored it since
+     */
+    public boolean isAbsent(Login login) {
+        var current = filter;
+        return current != null && !current.mightContain(login.value());
+    }
+
+    public boolean isAbsent(String usernameOrEmail) {
+        return isAbsent(Login.of(usernameOrEmail));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ilogos.user.user.filter;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user.login-filter")
+public class LoginFilterConfig {
+
+    private boolean enabled = true;
+
+    private long expectedInsertions = 1_000_000;
+
+    private double falsePositiveRate = 0.01;
+
+    private DataSize maxMemory = DataSize.ofMegabytes(8);
+
+    private Duration rebuildInterval = Duration.ofMinutes(5);
+
+}
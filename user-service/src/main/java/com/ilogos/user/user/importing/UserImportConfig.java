@@ -0,0 +1,23 @@
+package com.ilogos.user.user.importing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user.import")
+public class UserImportConfig {
+
+    // password hashing threads, a quarter of the cores by default, next to the
+    // request hashing pool and not counted against its queue
+    private int hashingThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+
+    // users per insert transaction, the next batch is hashed meanwhile
+    private int batchSize = 500;
+
+    // row errors kept in the report, the rest are only counted
+    private int maxErrors = 1_000;
+
+}
@@ -0,0 +1,18 @@
+package com.ilogos.user.user.importing;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record UserImportReport(
+        @Schema(description = "Data rows read") long total,
+        @Schema(description = "Users created") long imported,
+        @Schema(description = "Rows rejected") long failed,
+        @Schema(description = "First rejected rows, up to user.import.max-errors") List<RowError> errors) {
+
+    public record RowError(
+            @Schema(description = "1-based line of the input") long line,
+            @Schema(description = "Username or email of the row, if readable") String key,
+            String message) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.ilogos.user.user.importing;
+
+import java.util.List;
+
+import com.ilogos.user.common.validation.annotation.ValidTimezone;
+import com.ilogos.user.user.UserService.NewUser;
+import com.ilogos.user.user.model.RoleType;
+import com.ilogos.user.user.validation.annotation.ValidUsername;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+ * One imported user, a CSV line or an NDJSON object. Same rules as the
+ * registration request.
+ */
+public record UserImportRow(
+        @ValidUsername @Size(min = 3, max = 64) String username,
+        @NotBlank @Email String email,
+        @NotBlank @Size(min = 6, max = 64) String password,
+        Boolean isActive,
+        @NotEmpty List<RoleType> roles,
+        @ValidTimezone String timezone) {
+
+    public String key() {
+        return username != null ? username : email;
+    }
+
+    public NewUser toNewUser() {
+        return new NewUser(username, email, password, isActive == null || isActive, roles, timezone);
+    }
+}
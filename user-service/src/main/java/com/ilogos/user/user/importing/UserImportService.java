@@ -0,0 +1,328 @@
+package com.ilogos.user.user.importing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ilogos.user.exception.ExceptionWithStatus;
+import com.ilogos.user.user.User;
+import com.ilogos.user.user.UserInfoRepository;
+import com.ilogos.user.user.UserService;
+import com.ilogos.user.user.importing.UserImportReport.RowError;
+import com.ilogos.user.user.model.Login;
+import com.ilogos.user.user.model.RoleType;
+import com.ilogos.user.user.password.PasswordHashingService;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streaming user import. Rows are read and validated one line at a time,
+ * passwords are hashed on a bounded pool, and valid rows are inserted in
+ * batches of {@code batch-size}, one transaction each, while the next batch is
+ * hashed. Only the rows of two batches and the logins seen so far are held in
+ * memory. A failed batch rejects all of its rows, earlier batches stay
+ * imported.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final List<String> CSV_COLUMNS = List.of("username", "email", "password", "roles", "timezone",
+            "isActive");
+
+    private final UserImportConfig config;
+    private final UserService userService;
+    private final PasswordHashingService passwordHashing;
+    private final UserInfoRepository userInfoRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor hashingPool;
+
+    public UserImportService(UserImportConfig config, UserService userService,
+            PasswordHashingService passwordHashing, UserInfoRepository userInfoRepository,
+            Validator validator, ObjectMapper objectMapper) {
+        this.config = config;
+        this.userService = userService;
+        this.passwordHashing = passwordHashing;
+        this.userInfoRepository = userInfoRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+
+        var threadNumber = new AtomicInteger();
+        // a full queue runs the task on the reading thread, which throttles reading
+        hashingPool = new ThreadPoolExecutor(config.getHashingThreads(), config.getHashingThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getBatchSize() * 2),
+                runnable -> {
+                    var thread = new Thread(runnable, "user-import-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private record PreparedRow(long line, String key, Future<User> user) {
+    }
+
+    private class Import {
+
+        private final Deque<PreparedRow> window = new ArrayDeque<>();
+        private final Set<String> seenLogins = new HashSet<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long failed;
+
+        void reject(long line, String key, String message) {
+            failed++;
+            if (errors.size() < config.getMaxErrors()) {
+                errors.add(new RowError(line, key, message));
+            }
+        }
+
+        void accept(long line, UserImportRow row) {
+            total++;
+            var violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                var violation = violations.iterator().next();
+                reject(line, row.key(), violation.getPropertyPath() + ": " + violation.getMessage());
+                return;
+            }
+            if (row.roles().contains(RoleType.ROLE_ADMIN)) {
+                reject(line, row.key(), "Administrator registration is denied");
+                return;
+            }
+            var username = Login.normalize(row.username());
+            var email = Login.normalize(row.email());
+            if (seenLogins.contains(username) || seenLogins.contains(email)) {
+                reject(line, row.key(), "Duplicate username or email in input");
+                return;
+            }
+            seenLogins.add(username);
+            seenLogins.add(email);
+
+            window.add(new PreparedRow(line, row.key(),
+                    hashingPool.submit(() -> userService.build(row.toNewUser(),
+                            passwordHashing.encodeInline(row.password())))));
+            if (window.size() >= config.getBatchSize() * 2) {
+                flush(config.getBatchSize());
+            }
+        }
+
+        void flush(int count) {
+            var rows = new ArrayList<PreparedRow>(count);
+            var users = new ArrayList<User>(count);
+            for (int i = 0; i < count && !window.isEmpty(); i++) {
+                var row = window.poll();
+                try {
+                    users.add(row.user().get());
+                    rows.add(row);
+                } catch (ExecutionException e) {
+                    reject(row.line(), row.key(), e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+            rejectTakenLogins(rows, users);
+            if (users.isEmpty()) {
+                return;
+            }
+
+            try {
+                userService.insertAll(users);
+                imported += users.size();
+            } catch (DataAccessException e) {
+                log.warn("User import batch of {} rows failed", users.size(), e);
+                rows.forEach(row -> reject(row.line(), row.key(), "Batch rejected: " + e.getMostSpecificCause()
+                        .getMessage()));
+            }
+        }
+
+        // drops rows whose login is already stored, one query per batch
+        private void rejectTakenLogins(List<PreparedRow> rows, List<User> users) {
+            var usernames = new HashSet<String>();
+            var emails = new HashSet<String>();
+            for (var user : users) {
+                usernames.add(Login.normalize(user.getUsername()));
+                emails.add(Login.normalize(user.getEmail()));
+            }
+            if (usernames.isEmpty() && emails.isEmpty()) {
+                return;
+            }
+
+            Map<String, String> taken = new HashMap<>();
+            userInfoRepository.findAllByLogins(emails, usernames).forEach(existing -> {
+                taken.put(Login.normalize(existing.getUsername()), "Username already used");
+                taken.put(Login.normalize(existing.getEmail()), "Email already used");
+            });
+            if (taken.isEmpty()) {
+                return;
+            }
+
+            for (int i = users.size() - 1; i >= 0; i--) {
+                var user = users.get(i);
+                var message = taken.getOrDefault(Login.normalize(user.getUsername()),
+                        taken.get(Login.normalize(user.getEmail())));
+                if (message != null) {
+                    var row = rows.remove(i);
+                    users.remove(i);
+                    reject(row.line(), row.key(), message);
+                }
+            }
+        }
+
+        UserImportReport finish() {
+            while (!window.isEmpty()) {
+                flush(config.getBatchSize());
+            }
+            return new UserImportReport(total, imported, failed, errors);
+        }
+
+        void cancel() {
+            window.forEach(row -> row.user().cancel(false));
+        }
+    }
+
+    public UserImportReport importUsers(InputStream input, Format format) {
+        var running = new Import();
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            List<String> header = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = readHeader(line);
+                    continue;
+                }
+                UserImportRow row;
+                try {
+                    row = format == Format.CSV
+                            ? parseCsv(header, line)
+                            : objectMapper.readValue(line, UserImportRow.class);
+                } catch (IOException | IllegalArgumentException e) {
+                    running.total++;
+                    running.reject(lineNumber, null, "Unreadable row: " + e.getMessage());
+                    continue;
+                }
+                running.accept(lineNumber, row);
+            }
+        } catch (IOException e) {
+            running.cancel();
+            throw new ExceptionWithStatus(HttpStatus.BAD_REQUEST, "Import input could not be read");
+        } catch (RuntimeException e) {
+            running.cancel();
+            throw e;
+        }
+        var report = running.finish();
+        log.info("User import: {} rows, {} imported, {} rejected", report.total(), report.imported(),
+                report.failed());
+        return report;
+    }
+
+    private static List<String> readHeader(String line) {
+        var header = splitCsv(line).stream().map(String::trim).toList();
+        if (!header.containsAll(CSV_COLUMNS.subList(0, 5))) {
+            throw new ExceptionWithStatus(HttpStatus.BAD_REQUEST,
+                    "CSV header must contain " + String.join(",", CSV_COLUMNS.subList(0, 5)));
+        }
+        return header;
+    }
+
+    private static UserImportRow parseCsv(List<String> header, String line) {
+        var values = splitCsv(line);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("expected %d columns, got %d".formatted(header.size(), values.size()));
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            row.put(header.get(i), values.get(i));
+        }
+        var roles = Arrays.stream(row.get("roles").split(";"))
+                .map(String::trim)
+                .filter(it -> !it.isEmpty())
+                .map(it -> RoleType.valueOf(it.toUpperCase(Locale.ROOT)))
+                .toList();
+        var isActive = row.get("isActive");
+        return new UserImportRow(
+                row.get("username"),
+                row.get("email"),
+                row.get("password"),
+                isActive == null || isActive.isBlank() ? null : Boolean.parseBoolean(isActive.trim()),
+                roles,
+                row.get("timezone"));
+    }
+
+    /**
+     * Splits one CSV line, quoted values may contain commas and doubled quotes
+     * but not line breaks.
+     */
+    static List<String> splitCsv(String line) {
+        var values = new ArrayList<String>();
+        var value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quote");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    @PreDestroy
+    public void close() {
+        hashingPool.shutdownNow();
+    }
+}
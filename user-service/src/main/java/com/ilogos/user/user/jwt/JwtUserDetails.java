@@ -5,14 +5,25 @@ import java.util.Collection;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import com.ilogos.user.user.User;
+import com.ilogos.user.common.TokenInfo;
+import com.ilogos.user.common.model.IWithTokenInfo;
+import com.ilogos.user.user.model.UserInfo;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
-public class JwtUserDetails implements UserDetails {
+public class JwtUserDetails implements UserDetails, IWithTokenInfo {
 
-    private final User user;
+    private final UserInfo user;
+
+    // token that authenticated the request, null when loaded by username
+    @Getter
+    private final TokenInfo tokenInfo;
+
+    public JwtUserDetails(UserInfo user) {
+        this(user, null);
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
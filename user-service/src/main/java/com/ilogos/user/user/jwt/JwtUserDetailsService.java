@@ -8,8 +8,11 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import com.ilogos.user.user.User;
-import com.ilogos.user.user.UserRepository;
+import com.ilogos.user.common.TokenInfo;
+import com.ilogos.user.user.UserInfoRepository;
+import com.ilogos.user.user.model.Login;
+import com.ilogos.user.user.model.UserInfo;
+import com.ilogos.user.user.replica.UserReplicaReads;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,22 +22,31 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class JwtUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserInfoRepository userInfoRepository;
+    private final UserReplicaReads replicaReads;
 
-    private UserDetails getUserDetails(Optional<User> user) {
+    private UserDetails getUserDetails(Optional<UserInfo> user) {
         return new JwtUserDetails(user.orElseThrow(() -> new UsernameNotFoundException("User not found")));
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        var user = userRepository.<User>findByEmailOrUsername(username, username, User.class);
+        var login = Login.of(username);
+        var user = replicaReads.byLogin(login, () -> userInfoRepository.findByLogin(login));
 
         return getUserDetails(user);
     }
 
     public UserDetails loadUserById(UUID id) {
-        var user = userRepository.findById(id);
+        var user = replicaReads.byId(id, () -> userInfoRepository.findById(id));
 
         return getUserDetails(user);
     }
+
+    public UserDetails loadUserByToken(TokenInfo tokenInfo) {
+        var user = replicaReads.byId(tokenInfo.getId(), () -> userInfoRepository.findById(tokenInfo.getId()));
+
+        return new JwtUserDetails(user.orElseThrow(() -> new UsernameNotFoundException("User not found")),
+                tokenInfo);
+    }
 }
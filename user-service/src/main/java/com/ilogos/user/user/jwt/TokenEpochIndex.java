@@ -0,0 +1,148 @@
+package com.ilogos.user.user.jwt;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import com.ilogos.user.jwt.JwtConfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory "tokens valid after" epoch per user: tokens issued before the
+ * user's {@code last_token_issued_at} are revoked. Only users whose epoch is
+ * younger than {@code max-token-lifetime} are kept, older epochs can't reject
+ * an unexpired token. Deactivation isn't tracked here, it's checked with the
+ * user lookup or the CLAIMS mode freshness check. Warmed from the database at
+ * startup, advanced by this instance's writes and polled every
+ * {@code token-epoch-refresh-interval} for writes of other instances. Users
+ * missing from the index are accepted.
+ */
+@Slf4j
+@Component
+public class TokenEpochIndex {
+
+    // re-read on every poll, covers rows committed after a later timestamp was polled
+    private static final Duration LOOKBACK = Duration.ofMinutes(1);
+
+    private static final String ISSUED_SINCE_SQL = """
+            select id, last_token_issued_at from app_user
+            where last_token_issued_at > ?""";
+
+    private final JwtConfig config;
+    private final JdbcTemplate jdbcTemplate;
+
+    // epoch second of the earliest accepted token per user
+    private final Map<UUID, Long> epochs = new ConcurrentHashMap<>();
+    private volatile Instant polledAt;
+    private ScheduledExecutorService scheduler;
+
+    public TokenEpochIndex(JwtConfig config, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.jdbcTemplate = jdbcTemplate;
+
+        Gauge.builder("jwt.token-epochs", epochs, Map::size).register(meterRegistry);
+    }
+
+    // after migrations, tokens are accepted until then
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        var startedAt = Instant.now();
+        load(startedAt.minus(config.getMaxTokenLifetime()));
+        polledAt = startedAt;
+        log.info("Token epoch index warmed with {} users", epochs.size());
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "token-epoch-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getTokenEpochRefreshInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return config.isTokenEpochCheck();
+    }
+
+    private void load(Instant since) {
+        jdbcTemplate.query(ISSUED_SINCE_SQL,
+                (RowCallbackHandler) rs -> advance(rs.getObject("id", UUID.class), rs.getTimestamp("last_token_issued_at").toInstant()),
+                Timestamp.from(since));
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Token epoch refresh failed", e);
+        }
+    }
+
+    void refresh() {
+        var startedAt = Instant.now();
+        load(polledAt.minus(LOOKBACK));
+        polledAt = startedAt;
+
+        long expired = startedAt.minus(config.getMaxTokenLifetime()).getEpochSecond();
+        epochs.values().removeIf(epoch -> epoch < expired);
+    }
+
+    /**
+     * Revokes the user's tokens issued before {@code issuedAt}. Epochs never
+     * move backwards.
+     */
+    public void advance(UUID id, Instant issuedAt) {
+        if (!isEnabled() || issuedAt == null) {
+            return;
+        }
+        epochs.merge(id, issuedAt.getEpochSecond(), Math::max);
+    }
+
+    /**
+     * Whether a token of the subject issued at {@code issuedAt} was superseded.
+     * Never queries the database.
+     */
+    public boolean isRevoked(String subject, Instant issuedAt) {
+        if (!isEnabled() || subject == null) {
+            return false;
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(subject);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        var epoch = epochs.get(id);
+        if (epoch == null) {
+            return false;
+        }
+        // token timestamps have seconds precision
+        return issuedAt == null || issuedAt.getEpochSecond() < epoch;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ilogos.user.user.jwt;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.ilogos.user.common.TokenInfo;
+import com.ilogos.user.common.model.IWithTokenInfo;
+import com.ilogos.user.user.model.RoleType;
+
+import lombok.Getter;
+
+/**
+ * Principal built from the access token claims only, without a user lookup.
+ */
+public class TokenUserDetails implements UserDetails, IWithTokenInfo {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final Set<String> ROLE_NAMES = Arrays.stream(RoleType.values())
+            .map(RoleType::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    // built per request with stateless sessions, never serialized
+    @Getter
+    private final transient TokenInfo tokenInfo;
+    private final transient Set<RoleType> roles;
+
+    public TokenUserDetails(TokenInfo tokenInfo) {
+        this.tokenInfo = tokenInfo;
+        this.roles = tokenInfo.getRoles().stream()
+                .filter(ROLE_NAMES::contains)
+                .map(RoleType::valueOf)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return roles;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return tokenInfo.getUsername();
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ilogos.user.user.jwt;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ilogos.user.common.TokenInfo;
+import com.ilogos.user.jwt.JwtConfig;
+import com.ilogos.user.user.UserRepository;
+import com.ilogos.user.user.changes.UserChangedEvent;
+import com.ilogos.user.user.model.UserTokenState;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Small cache of per-user token state used by the claims-only authentication
+ * mode to reject tokens of deactivated users or tokens superseded by a later
+ * login, without a query per request.
+ */
+@Component
+public class UserTokenStateCache {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, Optional<UserTokenState>> states;
+
+    public UserTokenStateCache(JwtConfig jwtConfig, UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        states = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getFreshnessCacheSize())
+                .expireAfterWrite(jwtConfig.getFreshnessCacheTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, states, "user.token-state");
+    }
+
+    public boolean isFresh(TokenInfo tokenInfo) {
+        return states.get(tokenInfo.getId(), userRepository::findTokenStateById)
+                .map(state -> state.isActive()
+                        // token timestamps have seconds precision
+                        && !tokenInfo.getIssuedAt().toInstant()
+                                .isBefore(state.lastTokenIssuedAt().truncatedTo(ChronoUnit.SECONDS)))
+                .orElse(false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        states.invalidate(event.id());
+    }
+}
@@ -0,0 +1,27 @@
+package com.ilogos.user.user.model;
+
+import java.util.Locale;
+
+/**
+ * Normalized username or email as typed at login. Usernames can't contain '@',
+ * so an email is recognized without querying.
+ */
+public record Login(String value, boolean isEmail) {
+
+    public static Login of(String usernameOrEmail) {
+        var value = usernameOrEmail != null ? normalize(usernameOrEmail) : "";
+        return new Login(value, value.contains("@"));
+    }
+
+    public static String normalize(String usernameOrEmail) {
+        return usernameOrEmail.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isBlank() {
+        return value.isEmpty();
+    }
+
+    public boolean matches(IUserBase user) {
+        return value.equals(normalize(isEmail ? user.getEmail() : user.getUsername()));
+    }
+}
@@ -1,5 +1,12 @@
 package com.ilogos.user.user.model;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 import org.springframework.security.core.GrantedAuthority;
 
 import lombok.Getter;
@@ -8,17 +15,58 @@ import lombok.RequiredArgsConstructor;
 @Getter
 @RequiredArgsConstructor
 public enum RoleType implements GrantedAuthority {
-    ROLE_STUDENT("Студент"),
-    ROLE_ADMIN("Администратор"),
-    ROLE_TEACHER("Преподаватель"),
-    ROLE_MANAGER("Менеджер"),
-    ROLE_EDITOR("Редактор курсов");
+    // bits are stored in app_user.roles_mask and mirrored by role_bit() in the database, never reuse them
+    ROLE_STUDENT("Студент", 1 << 0),
+    ROLE_ADMIN("Администратор", 1 << 1),
+    ROLE_TEACHER("Преподаватель", 1 << 2),
+    ROLE_MANAGER("Менеджер", 1 << 3),
+    ROLE_EDITOR("Редактор курсов", 1 << 4);
 
     private final String description;
+    private final int bit;
+
+    private static final int ALL_BITS;
+    private static final List<Set<RoleType>> BY_MASK;
+
+    static {
+        int all = 0;
+        for (var role : values()) {
+            all |= role.bit;
+        }
+        ALL_BITS = all;
+
+        int masks = Integer.highestOneBit(all) << 1;
+        var byMask = new ArrayList<Set<RoleType>>(masks);
+        for (int mask = 0; mask < masks; mask++) {
+            var roles = EnumSet.noneOf(RoleType.class);
+            for (var role : values()) {
+                if ((mask & role.bit) != 0) {
+                    roles.add(role);
+                }
+            }
+            byMask.add(Collections.unmodifiableSet(roles));
+        }
+        BY_MASK = List.copyOf(byMask);
+    }
 
     @Override
     public String getAuthority() {
         return this.name();
     }
 
+    public static int toMask(Collection<RoleType> roles) {
+        int mask = 0;
+        for (var role : roles) {
+            mask |= role.bit;
+        }
+        return mask;
+    }
+
+    /**
+     * @return shared unmodifiable set, unknown bits are ignored
+     */
+    public static Set<RoleType> fromMask(int mask) {
+        return BY_MASK.get(mask & ALL_BITS);
+    }
+
 }
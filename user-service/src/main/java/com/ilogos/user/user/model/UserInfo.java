@@ -0,0 +1,26 @@
+package com.ilogos.user.user.model;
+
+import java.util.Set;
+import java.util.UUID;
+
+import com.ilogos.user.common.model.IWithPassword;
+import com.ilogos.user.common.model.IWithRoles;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Detached, immutable snapshot of the fields needed for authentication lookups.
+ */
+@Getter
+@AllArgsConstructor
+public class UserInfo implements IUserBase, IWithRoles, IWithPassword {
+
+    private final UUID id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final boolean isActive;
+    private final Set<RoleType> roles;
+
+}
@@ -0,0 +1,6 @@
+package com.ilogos.user.user.model;
+
+import java.time.Instant;
+
+public record UserTokenState(Instant lastTokenIssuedAt, boolean isActive) {
+}
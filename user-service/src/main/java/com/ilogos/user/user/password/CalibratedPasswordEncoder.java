@@ -0,0 +1,124 @@
+package com.ilogos.user.user.password;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.ilogos.user.user.password.PasswordHashingConfig.Algorithm;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Encodes with the configured algorithm at a work factor calibrated at startup
+ * to {@code target-latency} on this hardware, and verifies hashes of any
+ * algorithm and cost. Both formats keep their parameters in the hash
+ * ({@code $2a$12$...}, {@code $argon2id$v=19$m=...,t=...,p=...}), so hashes
+ * below the current work factor are reported by {@link #upgradeEncoding} and
+ * rehashed after the next successful login.
+ */
+@Slf4j
+@Component
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    private static final int SAMPLES = 3;
+
+    private final Algorithm algorithm;
+    private final int workFactor;
+    private final PasswordEncoder encoder;
+
+    // verify hashes of any cost, parameters are read from the hash
+    private final BCryptPasswordEncoder bcryptVerifier = new BCryptPasswordEncoder();
+    private final Argon2PasswordEncoder argon2Verifier = Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8();
+
+    public CalibratedPasswordEncoder(PasswordHashingConfig config, MeterRegistry meterRegistry) {
+        algorithm = config.getAlgorithm();
+        var target = config.getTargetLatency();
+        workFactor = switch (algorithm) {
+            case BCRYPT -> calibrateBcrypt(config.getBcrypt(), target);
+            case ARGON2 -> calibrateArgon2(config.getArgon2(), target);
+        };
+        encoder = switch (algorithm) {
+            case BCRYPT -> new BCryptPasswordEncoder(workFactor);
+            case ARGON2 -> argon2(config.getArgon2(), workFactor);
+        };
+        log.info("Password hashing: {} with work factor {} (target {})", algorithm, workFactor, target);
+
+        Gauge.builder("user.password.work-factor", () -> workFactor)
+                .tag("algorithm", algorithm.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    // each bcrypt strength step doubles the time
+    private static int calibrateBcrypt(PasswordHashingConfig.Bcrypt config, Duration target) {
+        var base = measure(new BCryptPasswordEncoder(config.getMinStrength()));
+        int steps = (int) Math.floor(Math.log((double) target.toNanos() / base.toNanos()) / Math.log(2));
+        return clamp(config.getMinStrength() + steps, config.getMinStrength(), config.getMaxStrength());
+    }
+
+    // argon2 time grows linearly with iterations at fixed memory
+    private static int calibrateArgon2(PasswordHashingConfig.Argon2 config, Duration target) {
+        var base = measure(argon2(config, config.getMinIterations()));
+        int iterations = (int) (config.getMinIterations() * target.toNanos() / base.toNanos());
+        return clamp(iterations, config.getMinIterations(), config.getMaxIterations());
+    }
+
+    private static Argon2PasswordEncoder argon2(PasswordHashingConfig.Argon2 config, int iterations) {
+        return new Argon2PasswordEncoder(SALT_LENGTH, HASH_LENGTH, config.getParallelism(), config.getMemory(),
+                iterations);
+    }
+
+    // median of a few runs after a warm-up one
+    private static Duration measure(PasswordEncoder encoder) {
+        encoder.encode("calibration");
+        var samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return Duration.ofNanos(Math.max(1, samples[SAMPLES / 2]));
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static boolean isArgon2(String hash) {
+        return hash.startsWith("$argon2");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        return isArgon2(encodedPassword)
+                ? argon2Verifier.matches(rawPassword, encodedPassword)
+                : bcryptVerifier.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        if (isArgon2(encodedPassword) != (algorithm == Algorithm.ARGON2)) {
+            return true;
+        }
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,60 @@
+package com.ilogos.user.user.password;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user.password-hashing")
+public class PasswordHashingConfig {
+
+    public enum Algorithm {
+        BCRYPT,
+        // auth-service verifies bcrypt only, don't enable before it can verify argon2id
+        ARGON2
+    }
+
+    // hashing threads, half the cores by default so request and import threads keep CPU
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    // hashes waiting for a thread, requests beyond it get 503
+    private int queueCapacity = 64;
+
+    // longest a request waits for its hash, queue wait included, before it gets 503
+    private Duration waitTimeout = Duration.ofSeconds(2);
+
+    private Algorithm algorithm = Algorithm.BCRYPT;
+
+    // the work factor is calibrated at startup to the highest one hashing within this time
+    private Duration targetLatency = Duration.ofMillis(250);
+
+    private Bcrypt bcrypt = new Bcrypt();
+
+    private Argon2 argon2 = new Argon2();
+
+    @Data
+    public static class Bcrypt {
+
+        private int minStrength = 10;
+
+        private int maxStrength = 14;
+    }
+
+    @Data
+    public static class Argon2 {
+
+        // memory per hash in KiB, only iterations are calibrated
+        private int memory = 19_456;
+
+        private int parallelism = 1;
+
+        private int minIterations = 2;
+
+        private int maxIterations = 10;
+    }
+
+}
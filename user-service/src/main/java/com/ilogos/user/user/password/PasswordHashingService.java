@@ -0,0 +1,143 @@
+package com.ilogos.user.user.password;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.ilogos.user.exception.ExceptionWithStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs password hashing on a pool smaller than the core count, so request
+ * threads don't all burn CPU on bcrypt at once. When {@code queue-capacity}
+ * hashes are already waiting, new ones fail fast with 503, and a hash not done
+ * within {@code wait-timeout} fails with 503 instead of piling up latency.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    private final long waitTimeoutNanos;
+
+    private final Timer queueWait;
+    private final Timer encodeTime;
+    private final Timer matchTime;
+    private final Counter rejected;
+
+    public PasswordHashingService(PasswordHashingConfig config, PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.waitTimeoutNanos = config.getWaitTimeout().toNanos();
+
+        var threadNumber = new AtomicInteger();
+        pool = new ThreadPoolExecutor(config.getThreads(), config.getThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                runnable -> {
+                    var thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        queueWait = Timer.builder("user.password.queue.wait")
+                .description("Time a password hash waited for a hashing thread")
+                .register(meterRegistry);
+        encodeTime = Timer.builder("user.password.hash")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        matchTime = Timer.builder("user.password.hash")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        rejected = Counter.builder("user.password.rejected")
+                .description("Password hashes rejected because the queue was full or the wait timed out")
+                .register(meterRegistry);
+        Gauge.builder("user.password.queue.size", pool, it -> it.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hashes a raw password on the hashing pool, blocking the caller until done.
+     */
+    public String encode(String rawPassword) {
+        return submit(() -> encodeInline(rawPassword));
+    }
+
+    /**
+     * Hashes on the calling thread, outside the pool's admission control. The
+     * import calls it from its own pool, sized by {@code user.import.hashing-threads}.
+     */
+    public String encodeInline(String rawPassword) {
+        return encodeTime.record(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return submit(() -> matchTime.record(() -> passwordEncoder.matches(rawPassword, passwordHash)));
+    }
+
+    /**
+     * Whether the hash was made with another algorithm or a lower work factor
+     * than the current calibration. Only parses the hash.
+     */
+    public boolean needsRehash(String passwordHash) {
+        return passwordEncoder.upgradeEncoding(passwordHash);
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = pool.submit(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing queue is full");
+            throw overloaded();
+        }
+        try {
+            return future.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // drops it if still queued, a running hash can't be interrupted
+            future.cancel(false);
+            rejected.increment();
+            log.warn("Password hash not done within the wait timeout");
+            throw overloaded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExceptionWithStatus(HttpStatus.SERVICE_UNAVAILABLE, e);
+        }
+    }
+
+    private static ExceptionWithStatus overloaded() {
+        return new ExceptionWithStatus(HttpStatus.SERVICE_UNAVAILABLE, "Password hashing is overloaded, retry later");
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,89 @@
+package com.ilogos.user.user.replica;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ilogos.user.config.database.ReplicaConfig;
+import com.ilogos.user.user.changes.UserChangedEvent;
+import com.ilogos.user.user.model.Login;
+
+/**
+ * Runs lookups in read-only transactions, which the datasource routes to the
+ * replica. Users written by this instance within {@code user.replica.staleness}
+ * are read from the primary instead, so a client sees its own writes. Writes
+ * of other instances are only bounded by replication lag.
+ */
+@Component
+public class UserReplicaReads {
+
+    private final boolean enabled;
+    private final TransactionTemplate readOnly;
+
+    // ids and normalized logins of recently written users
+    private final Cache<Object, Boolean> recentlyWritten;
+
+    public UserReplicaReads(ReplicaConfig config, PlatformTransactionManager transactionManager) {
+        enabled = config.isEnabled();
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        recentlyWritten = Caffeine.newBuilder()
+                .expireAfterWrite(config.getStaleness())
+                .build();
+    }
+
+    private <T> T read(boolean recent, Supplier<T> lookup) {
+        if (!enabled || recent) {
+            return lookup.get();
+        }
+        return readOnly.execute(status -> lookup.get());
+    }
+
+    private boolean isRecent(Object key) {
+        return recentlyWritten.getIfPresent(key) != null;
+    }
+
+    public <T> T byId(UUID id, Supplier<T> lookup) {
+        return read(isRecent(id), lookup);
+    }
+
+    public <T> T byLogin(Login login, Supplier<T> lookup) {
+        return read(isRecent(login.value()), lookup);
+    }
+
+    public <T> T byIds(Collection<UUID> ids, Supplier<T> lookup) {
+        return read(ids.stream().anyMatch(this::isRecent), lookup);
+    }
+
+    /**
+     * @param emails    normalized emails
+     * @param usernames normalized usernames
+     */
+    public <T> T byLogins(Collection<String> emails, Collection<String> usernames, Supplier<T> lookup) {
+        return read(emails.stream().anyMatch(this::isRecent) || usernames.stream().anyMatch(this::isRecent), lookup);
+    }
+
+    /**
+     * Bulk reads that aren't about particular users, always on the replica.
+     */
+    public <T> T scan(Supplier<T> lookup) {
+        return read(false, lookup);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        recentlyWritten.put(event.id(), true);
+        recentlyWritten.put(Login.normalize(event.username()), true);
+        recentlyWritten.put(Login.normalize(event.email()), true);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ilogos.user.user.throttle;
+
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+/**
+ * Exposes the end-user address forwarded by auth-service in the
+ * {@code x-client-ip} header of login calls.
+ */
+@Component
+@GlobalServerInterceptor
+public class ClientAddressInterceptor implements ServerInterceptor {
+
+    private static final Metadata.Key<String> CLIENT_IP = Metadata.Key.of("x-client-ip",
+            Metadata.ASCII_STRING_MARSHALLER);
+    private static final Context.Key<String> CLIENT_ADDRESS = Context.key("client-address");
+
+    /**
+     * Address of the current call's end user, null if not forwarded.
+     */
+    public static String current() {
+        return CLIENT_ADDRESS.get();
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+            ServerCallHandler<ReqT, RespT> next) {
+        var address = headers.get(CLIENT_IP);
+        if (address == null) {
+            return next.startCall(call, headers);
+        }
+        return Contexts.interceptCall(Context.current().withValue(CLIENT_ADDRESS, address), call, headers, next);
+    }
+}
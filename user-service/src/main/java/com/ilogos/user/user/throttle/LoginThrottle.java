@@ -0,0 +1,106 @@
+package com.ilogos.user.user.throttle;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In-memory login throttle, checked before the user lookup and the password
+ * hash. Lookups count against the client address, failed logins reported by
+ * auth-service against the account, so successful logins can't lock an
+ * account out. Windows of idle keys are evicted, so memory stays bounded by
+ * {@code maximum-keys}. Limits are per instance.
+ */
+@Component
+public class LoginThrottle {
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxPerAccount;
+    private final int maxPerSource;
+
+    private final Cache<String, SlidingWindow> accounts;
+    private final Cache<String, SlidingWindow> sources;
+
+    private final Counter accountRejections;
+    private final Counter sourceRejections;
+
+    public LoginThrottle(LoginThrottleConfig config, MeterRegistry meterRegistry) {
+        enabled = config.isEnabled();
+        windowMillis = config.getWindow().toMillis();
+        maxPerAccount = config.getMaxPerAccount();
+        maxPerSource = config.getMaxPerSource();
+
+        accounts = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumKeys())
+                .expireAfterAccess(config.getWindow().multipliedBy(2))
+                .recordStats()
+                .build();
+        sources = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumKeys())
+                .expireAfterAccess(config.getWindow().multipliedBy(2))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, accounts, "user.login-throttle.accounts");
+        CaffeineCacheMetrics.monitor(meterRegistry, sources, "user.login-throttle.sources");
+        accountRejections = Counter.builder("user.login-throttle.rejected")
+                .tag("scope", "account")
+                .register(meterRegistry);
+        sourceRejections = Counter.builder("user.login-throttle.rejected")
+                .tag("scope", "source")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks a login attempt against the failures of the normalized account and
+     * the attempts of the client address, when known, then counts it for the
+     * address. A rejected attempt counts for neither.
+     *
+     * @return false if either is over its limit
+     */
+    public boolean tryAcquire(String account, String source) {
+        return tryAcquire(account, source, System.currentTimeMillis());
+    }
+
+    boolean tryAcquire(String account, String source, long nowMillis) {
+        if (!enabled) {
+            return true;
+        }
+        var sourceWindow = source != null && !source.isEmpty()
+                ? sources.get(source, it -> new SlidingWindow())
+                : null;
+        if (sourceWindow != null && sourceWindow.isFull(nowMillis, windowMillis, maxPerSource)) {
+            sourceRejections.increment();
+            return false;
+        }
+        // accounts without failures take no key
+        var accountWindow = accounts.getIfPresent(account);
+        if (accountWindow != null && accountWindow.isFull(nowMillis, windowMillis, maxPerAccount)) {
+            accountRejections.increment();
+            return false;
+        }
+        if (sourceWindow != null) {
+            sourceWindow.add(nowMillis, windowMillis);
+        }
+        return true;
+    }
+
+    /**
+     * Counts a failed login of the normalized account.
+     */
+    public void recordFailure(String account) {
+        recordFailure(account, System.currentTimeMillis());
+    }
+
+    void recordFailure(String account, long nowMillis) {
+        if (enabled) {
+            accounts.get(account, it -> new SlidingWindow()).add(nowMillis, windowMillis);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ilogos.user.user.throttle;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user.login-throttle")
+public class LoginThrottleConfig {
+
+    private boolean enabled = true;
+
+    private Duration window = Duration.ofMinutes(1);
+
+    // failed logins per account within the window
+    private int maxPerAccount = 10;
+
+    // login attempts per client address within the window, across accounts
+    private int maxPerSource = 100;
+
+    // tracked accounts and sources each, idle keys are evicted after two windows
+    private int maximumKeys = 100_000;
+
+}
@@ -0,0 +1,56 @@
+package com.ilogos.user.user.throttle;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding window counter: the count of the previous fixed window, weighted by
+ * how much of it still overlaps the sliding window, plus the count of the
+ * current one. Window index and both counts are packed in one long updated by
+ * CAS, so counting never locks.
+ */
+final class SlidingWindow {
+
+    private static final int MAX_COUNT = 0xFFFF;
+    private static final long INDEX_MASK = 0xFFFF_FFFFL;
+
+    // window index (32 bits) | previous count (16 bits) | current count (16 bits)
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Whether one more event would exceed {@code limit}, counts nothing.
+     */
+    boolean isFull(long nowMillis, long windowMillis, int limit) {
+        long index = index(nowMillis, windowMillis);
+        double previousWeight = 1.0 - (double) (nowMillis % windowMillis) / windowMillis;
+        long current = state.get();
+        return previousCount(current, index) * previousWeight + currentCount(current, index) + 1 > limit;
+    }
+
+    void add(long nowMillis, long windowMillis) {
+        long index = index(nowMillis, windowMillis);
+        while (true) {
+            long current = state.get();
+            long next = (index << 32) | ((long) previousCount(current, index) << 16)
+                    | Math.min(currentCount(current, index) + 1, MAX_COUNT);
+            if (state.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static long index(long nowMillis, long windowMillis) {
+        return (nowMillis / windowMillis) & INDEX_MASK;
+    }
+
+    private static int previousCount(long state, long index) {
+        long stateIndex = state >>> 32;
+        if (stateIndex == index) {
+            return (int) (state >>> 16) & MAX_COUNT;
+        }
+        return stateIndex == ((index - 1) & INDEX_MASK) ? (int) state & MAX_COUNT : 0;
+    }
+
+    private static int currentCount(long state, long index) {
+        return state >>> 32 == index ? (int) state & MAX_COUNT : 0;
+    }
+}
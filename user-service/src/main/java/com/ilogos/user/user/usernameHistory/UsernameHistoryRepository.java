@@ -1,13 +1,24 @@
 package com.ilogos.user.user.usernameHistory;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.ilogos.user.user.User;
 
 public interface UsernameHistoryRepository extends JpaRepository<UsernameHistory, Long> {
 
-    Optional<UsernameHistory> findCurrentByUser(User user); // findByUserAndEndAtIsNull
+    @Query("select h from UsernameHistory h where h.user = :user and h.endAt is null")
+    Optional<UsernameHistory> findCurrentByUser(User user);
+
+    // joins the caller's transaction, declared queries don't get one by default
+    @Transactional
+    @Modifying
+    @Query("update UsernameHistory h set h.endAt = :endAt where h.user = :user and h.endAt is null")
+    int closeCurrentByUser(User user, Instant endAt);
 
 }
@@ -0,0 +1,16 @@
+-- doesn't serve any query, email and username have their own unique indexes
+drop index if exists idx_users_email_username_password;
+
+-- current history row of a user (findCurrentByUser)
+create index idx_username_history_current on username_history (user_id)
+	include (username, start_at)
+	where end_at is null;
+create index idx_email_history_current on email_history (user_id)
+	include (email, start_at)
+	where end_at is null;
+
+-- full history of a user (usernameHistory/emailHistory fetch)
+create index idx_username_history_user on username_history (user_id, start_at);
+create index idx_email_history_user on email_history (user_id, start_at);
+
+-- user_roles by user_id is served by uq_user_roles (user_id, role) as an index-only scan
@@ -0,0 +1,44 @@
+-- bits mirror RoleType.bit, never reuse them
+create function role_bit(role varchar) returns integer
+	language sql immutable parallel safe
+	as $$
+		select case role
+			when 'ROLE_STUDENT' then 1
+			when 'ROLE_ADMIN' then 2
+			when 'ROLE_TEACHER' then 4
+			when 'ROLE_MANAGER' then 8
+			when 'ROLE_EDITOR' then 16
+			else 0
+		end
+	$$;
+
+alter table app_user add column roles_mask integer not null default 0;
+
+update app_user u set roles_mask = coalesce(
+	(select bit_or(role_bit(r.role)) from user_roles r where r.user_id = u.id), 0);
+
+-- user_roles stays the written source, the mask follows it in the same statement
+create function user_roles_sync_mask() returns trigger
+	language plpgsql
+	as $$
+	begin
+		if tg_op in ('UPDATE', 'DELETE') then
+			update app_user set roles_mask = roles_mask & ~role_bit(old.role) where id = old.user_id;
+		end if;
+		if tg_op in ('INSERT', 'UPDATE') then
+			update app_user set roles_mask = roles_mask | role_bit(new.role) where id = new.user_id;
+		end if;
+		return null;
+	end
+	$$;
+
+create trigger trg_user_roles_sync_mask
+	after insert or update or delete on user_roles
+	for each row execute function user_roles_sync_mask();
+
+-- role membership, ordered by id for keyset paging
+create index idx_app_user_role_student on app_user (id) where roles_mask & 1 <> 0;
+create index idx_app_user_role_admin on app_user (id) where roles_mask & 2 <> 0;
+create index idx_app_user_role_teacher on app_user (id) where roles_mask & 4 <> 0;
+create index idx_app_user_role_manager on app_user (id) where roles_mask & 8 <> 0;
+create index idx_app_user_role_editor on app_user (id) where roles_mask & 16 <> 0;
@@ -0,0 +1,30 @@
+-- username/email history kept by the database when the connection sets ilogos.history_mode = 'trigger'
+create function app_user_track_history() returns trigger
+	language plpgsql
+	as $$
+	begin
+		if lower(coalesce(current_setting('ilogos.history_mode', true), '')) <> 'trigger' then
+			return null;
+		end if;
+
+		if tg_op = 'INSERT' or new.username is distinct from old.username then
+			update username_history set end_at = now() where user_id = new.id and end_at is null;
+			insert into username_history (user_id, username, start_at) values (new.id, new.username, now());
+		end if;
+
+		if tg_op = 'INSERT' or new.email is distinct from old.email then
+			update email_history set end_at = now() where user_id = new.id and end_at is null;
+			insert into email_history (user_id, email, start_at) values (new.id, new.email, now());
+		end if;
+
+		return null;
+	end
+	$$;
+
+create trigger trg_app_user_insert_history
+	after insert on app_user
+	for each row execute function app_user_track_history();
+
+create trigger trg_app_user_update_history
+	after update of username, email on app_user
+	for each row execute function app_user_track_history();
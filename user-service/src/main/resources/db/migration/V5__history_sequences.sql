@@ -0,0 +1,13 @@
+-- pooled sequences (allocationSize = 50) so Hibernate can batch history inserts,
+-- also the column default for rows written by the history triggers
+create sequence username_history_seq increment by 50;
+select setval('username_history_seq', coalesce((select max(id) from username_history), 0) + 50);
+alter table username_history alter column id drop identity if exists;
+alter table username_history alter column id set default nextval('username_history_seq');
+alter sequence username_history_seq owned by username_history.id;
+
+create sequence email_history_seq increment by 50;
+select setval('email_history_seq', coalesce((select max(id) from email_history), 0) + 50);
+alter table email_history alter column id drop identity if exists;
+alter table email_history alter column id set default nextval('email_history_seq');
+alter sequence email_history_seq owned by email_history.id;
@@ -0,0 +1,2 @@
+-- users with tokens issued since a point in time (TokenEpochIndex warm-up and refresh)
+create index idx_app_user_last_token_issued_at on app_user (last_token_issued_at);
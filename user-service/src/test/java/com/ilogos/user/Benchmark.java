@@ -0,0 +1,46 @@
+package com.ilogos.user;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntSupplier;
+
+/**
+ * Warms up and measures an operation on the calling thread: allocated bytes
+ * and wall time per round. Shared by the suites run with
+ * {@code -Dbenchmark=true}.
+ */
+public final class Benchmark {
+
+    public record Result(String name, long bytesPerRound, long nanosPerRound) {
+
+        public long roundsPerSecond() {
+            return nanosPerRound > 0 ? 1_000_000_000L / nanosPerRound : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "%-28s %10d B/round %10.1f us/round %10d rounds/s".formatted(name, bytesPerRound,
+                    nanosPerRound / 1_000.0, roundsPerSecond());
+        }
+    }
+
+    // consumes the operation results, so the work isn't optimized away
+    private static volatile int sink;
+
+    private Benchmark() {
+    }
+
+    public static Result measure(String name, int warmupRounds, int rounds, IntSupplier operation) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < warmupRounds; i++) {
+            sink = operation.getAsInt();
+        }
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink = operation.getAsInt();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - bytes;
+        return new Result(name, allocated / rounds, elapsed / rounds);
+    }
+}
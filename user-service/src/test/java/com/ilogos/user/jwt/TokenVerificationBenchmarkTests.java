@@ -0,0 +1,122 @@
+package com.ilogos.user.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.ilogos.user.Benchmark;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.Ed25519Signer;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * Checks kid-based key selection across RS256, ES256 and EdDSA, and compares
+ * single-thread (per core) verification throughput of the three. Run the
+ * benchmark with {@code -Dbenchmark=true}.
+ */
+class TokenVerificationBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVerificationBenchmarkTests.class);
+
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int ROUNDS = 10_000;
+
+    private record Algorithm(String kid, JWSAlgorithm algorithm, JWSSigner signer) {
+    }
+
+    private static List<Algorithm> algorithms;
+    private static JwtDecoder decoder;
+
+    @BeforeAll
+    static void keys() throws Exception {
+        var rsaGenerator = KeyPairGenerator.getInstance("RSA");
+        rsaGenerator.initialize(2048);
+        var rsa = rsaGenerator.generateKeyPair();
+
+        var ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        var ec = ecGenerator.generateKeyPair();
+
+        var ed25519 = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        var ed25519Jwk = (OctetKeyPair) JwtService.toJwk(ed25519.getPublic(), "ed");
+
+        algorithms = List.of(
+                new Algorithm("rsa", JWSAlgorithm.RS256, new RSASSASigner(rsa.getPrivate())),
+                new Algorithm("ec", JWSAlgorithm.ES256, new ECDSASigner((ECPrivateKey) ec.getPrivate())),
+                new Algorithm("ed", JWSAlgorithm.EdDSA, new Ed25519Signer(withPrivate(ed25519Jwk, ed25519))));
+        decoder = JwtService.buildTokenDecoder(new JWKSet(List.of(
+                JwtService.toJwk(rsa.getPublic(), "rsa"),
+                JwtService.toJwk(ec.getPublic(), "ec"),
+                ed25519Jwk)));
+    }
+
+    // PKCS#8 encoding of an Ed25519 key ends with the raw 32-byte private key
+    private static OctetKeyPair withPrivate(OctetKeyPair publicJwk, KeyPair keyPair) {
+        var encoded = keyPair.getPrivate().getEncoded();
+        var d = Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+        return new OctetKeyPair.Builder(publicJwk).d(Base64URL.encode(d)).build();
+    }
+
+    private static String token(Algorithm algorithm, String kid) throws JOSEException {
+        var claims = new JWTClaimsSet.Builder()
+                .subject(UUID.randomUUID().toString())
+                .issueTime(Date.from(Instant.now()))
+                .expirationTime(Date.from(Instant.now().plusSeconds(600)))
+                .claim("type", "access")
+                .build();
+        var jwt = new SignedJWT(new JWSHeader.Builder(algorithm.algorithm()).keyID(kid).build(), claims);
+        jwt.sign(algorithm.signer());
+        return jwt.serialize();
+    }
+
+    @Test
+    void selectsKeyByKid() throws JOSEException {
+        for (var algorithm : algorithms) {
+            assertThat(decoder.decode(token(algorithm, algorithm.kid())).getSubject()).isNotNull();
+            // tokens without a kid try every key of their algorithm
+            assertThat(decoder.decode(token(algorithm, null)).getSubject()).isNotNull();
+        }
+        var rsa = algorithms.get(0);
+        assertThatThrownBy(() -> decoder.decode(token(rsa, "ec"))).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> decoder.decode(token(rsa, "unknown"))).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void compareVerificationThroughput() throws JOSEException {
+        for (var algorithm : algorithms) {
+            var token = token(algorithm, algorithm.kid());
+            assertThat(decoder.decode(token).getSubject()).isNotNull();
+            var result = Benchmark.measure(algorithm.algorithm().getName(), WARMUP_ROUNDS, ROUNDS,
+                    () -> decoder.decode(token).getClaims().size());
+            log.info("{}", result);
+        }
+    }
+}
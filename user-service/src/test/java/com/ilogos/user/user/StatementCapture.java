@@ -0,0 +1,133 @@
+package com.ilogos.user.user;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source that records the prepared statements sent through it together
+ * with their parameter bindings, so tests can explain the SQL the repositories
+ * actually emit instead of a hand-written copy of it.
+ */
+class StatementCapture extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate");
+
+    record Binding(Method setter, Object[] args) {
+    }
+
+    record Captured(String sql, List<Binding> bindings) {
+
+        /**
+         * Replays the captured bindings on a statement with the same parameters.
+         */
+        void bind(PreparedStatement statement) throws SQLException {
+            for (var binding : bindings) {
+                invoke(statement, binding.setter(), binding.args());
+            }
+        }
+    }
+
+    private final List<Captured> captured = new CopyOnWriteArrayList<>();
+    private volatile boolean recording;
+
+    StatementCapture(DataSource target) {
+        super(target);
+    }
+
+    /**
+     * Wraps the context's data source, register it as a static bean.
+     */
+    static BeanPostProcessor postProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof StatementCapture)
+                        ? new StatementCapture(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    /**
+     * Statements executed by {@code action}, in order.
+     */
+    List<Captured> record(Runnable action) {
+        captured.clear();
+        recording = true;
+        try {
+            action.run();
+        } finally {
+            recording = false;
+        }
+        return List.copyOf(captured);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return capture(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return capture(super.getConnection(username, password));
+    }
+
+    private Connection capture(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            var result = invoke(connection, method, args);
+            return method.getName().equals("prepareStatement")
+                    ? capture((PreparedStatement) result, (String) args[0])
+                    : result;
+        });
+    }
+
+    private PreparedStatement capture(PreparedStatement statement, String sql) {
+        var bindings = new ArrayList<Binding>();
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            if (method.getName().startsWith("set") && args != null && args.length > 1
+                    && method.getParameterTypes()[0] == int.class) {
+                bindings.add(new Binding(method, args));
+            } else if (method.getName().equals("clearParameters")) {
+                bindings.clear();
+            } else if (recording && EXECUTE.contains(method.getName()) && args == null) {
+                captured.add(new Captured(sql, List.copyOf(bindings)));
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementCapture.class.getClassLoader(),
+                new Class<?>[] { type }, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ilogos.user.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.ilogos.user.Benchmark;
+import com.ilogos.user.Benchmark.Result;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Compares allocations and latency of entity lookups through
+ * {@link UserRepository} with the entity-free {@link UserInfoRepository}
+ * against the local profile database. Run with {@code -Dbenchmark=true}.
+ */
+@DataJpaTest
+@ActiveProfiles("local")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ UserInfoRepository.class, UserRolesConfig.class })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserLookupBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(UserLookupBenchmarkTests.class);
+
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<UUID> ids;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("""
+                insert into app_user (id, username, email, active, email_verified, failed_attempts,
+                    created_at, last_token_issued_at, password, timezone)
+                select gen_random_uuid(), 'bench-user-' || i, 'bench-user-' || i || '@example.com',
+                    true, false, 0, now(), now(), 'password', '+0'
+                from generate_series(1, 500) i""");
+        jdbcTemplate.update("""
+                insert into user_roles (user_id, role)
+                select id, 'ROLE_STUDENT' from app_user where username like 'bench-user-%'""");
+        ids = jdbcTemplate.queryForList("select id from app_user where username like 'bench-user-%'", UUID.class);
+    }
+
+    private static Result measure(String name, IntSupplier lookup) {
+        assertThat(lookup.getAsInt()).isPositive();
+        return Benchmark.measure(name, WARMUP_ROUNDS, ROUNDS, lookup);
+    }
+
+    @Test
+    void compareSingleLookups() {
+        var id = ids.get(0);
+        // a request gets a fresh persistence context
+        var entity = measure("entity findById", () -> {
+            entityManager.clear();
+            return userRepository.findById(id).map(user -> user.getRoles().size()).orElse(0);
+        });
+        var readModel = measure("read model findById",
+                () -> userInfoRepository.findById(id).map(user -> user.getRoles().size()).orElse(0));
+
+        log.info("{}", entity);
+        log.info("{}", readModel);
+        assertThat(readModel.bytesPerRound()).isLessThan(entity.bytesPerRound());
+    }
+
+    @Test
+    void compareBatchLookups() {
+        var entity = measure("entity findAllByIdIn", () -> {
+            entityManager.clear();
+            return userRepository.findAllByIdIn(ids).size();
+        });
+        var readModel = measure("read model findAllByIds", () -> userInfoRepository.findAllByIds(ids).size());
+
+        log.info("{}", entity);
+        log.info("{}", readModel);
+        assertThat(readModel.bytesPerRound()).isLessThan(entity.bytesPerRound());
+    }
+}
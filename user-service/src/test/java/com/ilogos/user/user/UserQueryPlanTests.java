@@ -0,0 +1,274 @@
+package com.ilogos.user.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.ilogos.user.jwt.JwtConfig;
+import com.ilogos.user.user.emailHistory.EmailHistoryRepository;
+import com.ilogos.user.user.jwt.TokenEpochIndex;
+import com.ilogos.user.user.model.Login;
+import com.ilogos.user.user.model.RoleType;
+import com.ilogos.user.user.usernameHistory.UsernameHistoryRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Guards the plans of the repository queries against the local profile
+ * database. Each test calls a repository method, captures the statements it
+ * sends and explains them with the same bindings. Users are seeded in the
+ * test's rolled back transaction and sequential scans are disabled, so the
+ * planner only falls back to them when no index can serve the predicate.
+ * Skipped by the default test run: a manual check, run with
+ * {@code -Dplans=true} against the local database before changing the
+ * repository queries or the indexes.
+ */
+@DataJpaTest
+@ActiveProfiles("local")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ UserInfoRepository.class, UserRolesConfig.class, UserQueryPlanTests.Capture.class })
+@EnabledIfSystemProperty(named = "plans", matches = "true")
+class UserQueryPlanTests {
+
+    @TestConfiguration
+    static class Capture {
+
+        @Bean
+        static BeanPostProcessor statementCapture() {
+            return StatementCapture.postProcessor();
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private UsernameHistoryRepository usernameHistoryRepository;
+
+    @Autowired
+    private EmailHistoryRepository emailHistoryRepository;
+
+    // fresh per test, never in the second-level cache
+    private UUID userId;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("""
+                insert into app_user (id, username, email, active, email_verified, failed_attempts,
+                    created_at, last_token_issued_at, password, timezone)
+                select gen_random_uuid(), 'plan-user-' || i, 'plan-user-' || i || '@example.com',
+                    true, false, 0, now(), now(), 'password', '+0'
+                from generate_series(1, 2000) i""");
+        jdbcTemplate.update("""
+                insert into user_roles (user_id, role)
+                select id, 'ROLE_STUDENT' from app_user where username like 'plan-user-%'""");
+        jdbcTemplate.update("""
+                insert into username_history (user_id, username, start_at, end_at)
+                select id, username, now() - interval '1 day', now() from app_user where username like 'plan-user-%'
+                union all
+                select id, username, now(), null from app_user where username like 'plan-user-%'""");
+        jdbcTemplate.update("""
+                insert into email_history (user_id, email, start_at, end_at)
+                select id, email, now() - interval '1 day', now() from app_user where username like 'plan-user-%'
+                union all
+                select id, email, now(), null from app_user where username like 'plan-user-%'""");
+        jdbcTemplate.execute("analyze app_user, user_roles, username_history, email_history");
+        jdbcTemplate.execute("set local enable_seqscan = off");
+
+        userId = jdbcTemplate.queryForObject("select id from app_user where username = 'plan-user-1'", UUID.class);
+    }
+
+    /**
+     * Plans of the statements {@code action} executes, each prefixed with its SQL.
+     */
+    private List<String> explain(Runnable action) {
+        var statements = ((StatementCapture) dataSource).record(action);
+        assertThat(statements).isNotEmpty();
+        return statements.stream().map(this::explain).toList();
+    }
+
+    private String explain(StatementCapture.Captured statement) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (var explain = connection.prepareStatement("explain " + statement.sql())) {
+                statement.bind(explain);
+                var plan = new StringJoiner("\n", statement.sql() + "\n", "");
+                try (var rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        plan.add(rs.getString(1));
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    // predicate and plan of an explained statement, without its select list
+    private static String where(String plan) {
+        return plan.substring(plan.indexOf(" where "));
+    }
+
+    private void assertIndexed(Runnable action) {
+        assertThat(explain(action))
+                .allSatisfy(plan -> assertThat(plan).contains("Index").doesNotContain("Seq Scan"));
+    }
+
+    @Test
+    void findById() {
+        assertIndexed(() -> userRepository.findById(userId).orElseThrow());
+    }
+
+    @Test
+    void findByLoginWithEmail() {
+        var plans = explain(() -> userRepository.findByLogin("Plan-User-1@Example.com", User.class).orElseThrow());
+
+        // a single equality on the unique index, then the roles
+        assertThat(where(plans.get(0))).contains("app_user_email_key").doesNotContain("username");
+        assertThat(plans).allSatisfy(plan -> assertThat(plan).contains("Index").doesNotContain("Seq Scan"));
+    }
+
+    @Test
+    void findByLoginWithUsername() {
+        var plans = explain(() -> userRepository.findByLogin("Plan-User-1", User.class).orElseThrow());
+
+        assertThat(where(plans.get(0))).contains("app_user_username_key").doesNotContain("email");
+        assertThat(plans).allSatisfy(plan -> assertThat(plan).contains("Index").doesNotContain("Seq Scan"));
+    }
+
+    @Test
+    void findTokenStateById() {
+        assertIndexed(() -> userRepository.findTokenStateById(userId).orElseThrow());
+    }
+
+    @Test
+    void findAllByIdIn() {
+        assertIndexed(() -> userRepository.findAllByIdIn(List.of(userId, new UUID(0, 0))));
+    }
+
+    @Test
+    void findWithUsernameHistory() {
+        var plans = explain(() -> userRepository.findWithUsernameHistoryByUsername("plan-user-1", User.class)
+                .orElseThrow().getUsernameHistory().size());
+
+        assertThat(plans).anySatisfy(plan -> assertThat(plan).contains("idx_username_history_user"));
+        assertThat(plans).allSatisfy(plan -> assertThat(plan).doesNotContain("Seq Scan"));
+    }
+
+    @Test
+    void findWithEmailHistory() {
+        var plans = explain(() -> userRepository.findWithEmailHistoryByEmail("plan-user-1@example.com", User.class)
+                .orElseThrow().getEmailHistory().size());
+
+        assertThat(plans).anySatisfy(plan -> assertThat(plan).contains("idx_email_history_user"));
+        assertThat(plans).allSatisfy(plan -> assertThat(plan).doesNotContain("Seq Scan"));
+    }
+
+    @Test
+    void findCurrentUsernameByUser() {
+        var user = entityManager.getReference(User.class, userId);
+        var plans = explain(() -> usernameHistoryRepository.findCurrentByUser(user).orElseThrow());
+
+        assertThat(plans).singleElement().asString()
+                .contains("idx_username_history_current").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void findCurrentEmailByUser() {
+        var user = entityManager.getReference(User.class, userId);
+        var plans = explain(() -> emailHistoryRepository.findCurrentByUser(user).orElseThrow());
+
+        assertThat(plans).singleElement().asString()
+                .contains("idx_email_history_current").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void userInfoById() {
+        assertIndexed(() -> userInfoRepository.findById(userId).orElseThrow());
+    }
+
+    @Test
+    void userInfoByLogin() {
+        var byEmail = explain(() -> userInfoRepository.findByLogin(Login.of("Plan-User-1@Example.com")).orElseThrow());
+        var byUsername = explain(() -> userInfoRepository.findByLogin(Login.of("Plan-User-1")).orElseThrow());
+
+        assertThat(byEmail).singleElement().extracting(UserQueryPlanTests::where).asString()
+                .contains("app_user_email_key").doesNotContain("username").doesNotContain("Seq Scan");
+        assertThat(byUsername).singleElement().extracting(UserQueryPlanTests::where).asString()
+                .contains("app_user_username_key").doesNotContain("email").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void userInfoByIds() {
+        assertIndexed(() -> userInfoRepository.findAllByIds(List.of(userId, new UUID(0, 0))));
+    }
+
+    @Test
+    void userInfoByLogins() {
+        assertIndexed(() -> userInfoRepository.findAllByLogins(
+                List.of("plan-user-1@example.com", "plan-user-2@example.com"), List.of("plan-user-3", "plan-user-4")));
+    }
+
+    @Test
+    void userInfoPage() {
+        assertIndexed(() -> userInfoRepository.findPage(null, 500));
+    }
+
+    @Test
+    void userInfoByRoleMask() {
+        var rolesConfig = new UserRolesConfig();
+        rolesConfig.setStorage(UserRolesConfig.Storage.MASK);
+        var repository = new UserInfoRepository(jdbcTemplate, rolesConfig);
+
+        var plans = explain(() -> repository.findAllByRole(RoleType.ROLE_STUDENT, null, 500));
+
+        assertThat(plans).singleElement().asString()
+                .contains("idx_app_user_role_student").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void tokenEpochsSince() {
+        var config = new JwtConfig();
+        config.setTokenEpochCheck(true);
+        var index = new TokenEpochIndex(config, jdbcTemplate, new SimpleMeterRegistry());
+
+        List<String> plans;
+        try {
+            plans = explain(index::start);
+        } finally {
+            index.close();
+        }
+
+        assertThat(plans).singleElement().asString()
+                .contains("idx_app_user_last_token_issued_at").doesNotContain("Seq Scan");
+    }
+}
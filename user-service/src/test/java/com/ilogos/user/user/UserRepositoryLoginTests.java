@@ -0,0 +1,53 @@
+package com.ilogos.user.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ilogos.user.user.model.Login;
+
+/**
+ * Login routing to a single equality lookup. Which index serves each lookup
+ * is asserted by {@link UserQueryPlanTests}.
+ */
+class UserRepositoryLoginTests {
+
+    private final UserRepository repository = mock(UserRepository.class);
+
+    @BeforeEach
+    void stub() {
+        when(repository.findByLogin(anyString(), any())).thenCallRealMethod();
+        when(repository.findByLogin(any(Login.class), any())).thenCallRealMethod();
+    }
+
+    @Test
+    void emailIsLookedUpByEmailOnly() {
+        repository.findByLogin(" Alice@Example.com ", User.class);
+
+        verify(repository).findByEmail("alice@example.com", User.class);
+        verify(repository, never()).findByUsername(anyString(), any());
+    }
+
+    @Test
+    void usernameIsLookedUpByUsernameOnly() {
+        repository.findByLogin("Alice", User.class);
+
+        verify(repository).findByUsername("alice", User.class);
+        verify(repository, never()).findByEmail(anyString(), any());
+    }
+
+    @Test
+    void blankLoginIsNotLookedUp() {
+        assertThat(repository.findByLogin("  ", User.class)).isEmpty();
+
+        verify(repository, never()).findByEmail(anyString(), any());
+        verify(repository, never()).findByUsername(anyString(), any());
+    }
+}
@@ -0,0 +1,97 @@
+package com.ilogos.user.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ilogos.user.user.cache.UserEntityCache;
+import com.ilogos.user.user.model.RoleType;
+
+import jakarta.persistence.EntityManager;
+
+class UserUpdateRepositoryImplTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final UserUpdateRepositoryImpl repository = new UserUpdateRepositoryImpl(jdbcTemplate,
+            mock(UserEntityCache.class));
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+        user = User.builder().username("alice").email("alice@example.com").password("hash")
+                .role(RoleType.ROLE_STUDENT).timezone("UTC").build();
+        ReflectionTestUtils.setField(user, "id", UUID.randomUUID());
+    }
+
+    @Test
+    void untrackedChangeSavesWholeUser() {
+        user.setTimezone("Europe/Berlin");
+        user.preUpdate();
+
+        assertThat(repository.updateChanges(user)).isTrue();
+
+        var saved = ArgumentCaptor.forClass(User.class);
+        verify(entityManager).merge(saved.capture());
+        verify(entityManager).flush();
+        assertThat(saved.getValue().getTimezone()).isEqualTo("Europe/Berlin");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void untrackedChangeKeepsTrackedChanges() {
+        user.setActive(true);
+        user.setUsername("bob");
+        user.preUpdate();
+
+        repository.updateChanges(user);
+
+        var saved = ArgumentCaptor.forClass(User.class);
+        verify(entityManager).merge(saved.capture());
+        assertThat(saved.getValue().getUsername()).isEqualTo("bob");
+        assertThat(saved.getValue().isActive()).isTrue();
+        assertThat(saved.getValue().getUpdatedAt()).isNotNull();
+    }
+
+    @Test
+    void unchangedValueIsNoChange() {
+        user.setTimezone("UTC");
+        user.setEmailVerified(false);
+
+        assertThat(user.getChanges()).isEmpty();
+        assertThat(repository.updateChanges(user)).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void trackedChangeWritesOnlyItsColumns() {
+        var sql = ArgumentCaptor.forClass(String.class);
+        doReturn(List.of(true)).when(jdbcTemplate).query(anyString(), any(RowMapper.class), any(Object[].class));
+
+        user.incrementAttempts();
+        user.preUpdate();
+
+        assertThat(repository.updateChanges(user)).isTrue();
+
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), any(Object[].class));
+        assertThat(sql.getValue()).startsWith("update app_user set failed_attempts = failed_attempts + 1 where");
+        verify(entityManager, never()).merge(any());
+    }
+}
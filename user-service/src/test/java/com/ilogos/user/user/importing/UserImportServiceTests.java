@@ -0,0 +1,155 @@
+package com.ilogos.user.user.importing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ilogos.user.exception.ExceptionWithStatus;
+import com.ilogos.user.user.UserInfoRepository;
+import com.ilogos.user.user.UserService;
+import com.ilogos.user.user.importing.UserImportReport.RowError;
+import com.ilogos.user.user.model.RoleType;
+import com.ilogos.user.user.model.UserInfo;
+import com.ilogos.user.user.password.PasswordHashingService;
+
+import jakarta.validation.Validation;
+
+class UserImportServiceTests {
+
+    private static final String HEADER = "username,email,password,roles,timezone";
+
+    private final UserService userService = mock(UserService.class);
+    private final PasswordHashingService passwordHashing = mock(PasswordHashingService.class);
+    private final UserInfoRepository userInfoRepository = mock(UserInfoRepository.class);
+    private UserImportService service;
+
+    @BeforeEach
+    void stub() {
+        when(passwordHashing.encodeInline(anyString())).thenReturn("hash");
+        when(userService.build(any(), anyString())).thenCallRealMethod();
+        when(userService.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userInfoRepository.findAllByLogins(anyCollection(), anyCollection())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void close() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    private UserImportReport importCsv(int batchSize, String... lines) {
+        var config = new UserImportConfig();
+        config.setHashingThreads(2);
+        config.setBatchSize(batchSize);
+        config.setMaxErrors(10);
+        service = new UserImportService(config, userService, passwordHashing, userInfoRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
+        var input = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return service.importUsers(new ByteArrayInputStream(input), UserImportService.Format.CSV);
+    }
+
+    private static String row(int i) {
+        return "user-%d,user-%d@example.com,secret%d,ROLE_STUDENT,UTC".formatted(i, i, i);
+    }
+
+    @Test
+    void splitsPlainValues() {
+        assertThat(UserImportService.splitCsv("a,b,,c")).containsExactly("a", "b", "", "c");
+    }
+
+    @Test
+    void quotedValuesKeepCommas() {
+        assertThat(UserImportService.splitCsv("\"a,b\",c")).containsExactly("a,b", "c");
+    }
+
+    @Test
+    void doubledQuotesAreUnescaped() {
+        assertThat(UserImportService.splitCsv("\"say \"\"hi\"\"\",x")).containsExactly("say \"hi\"", "x");
+    }
+
+    @Test
+    void unterminatedQuoteIsRejected() {
+        assertThatThrownBy(() -> UserImportService.splitCsv("\"a,b"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("unterminated quote");
+    }
+
+    @Test
+    void headerMustContainRequiredColumns() {
+        assertThatThrownBy(() -> importCsv(500, "username,email,password", row(1)))
+                .isInstanceOfSatisfying(ExceptionWithStatus.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void headerColumnsMayBeReorderedAndExtended() {
+        var report = importCsv(500, "timezone,isActive,roles,password,email,username,note",
+                "UTC,false,ROLE_TEACHER,secret1,user-1@example.com,user-1,ignored");
+
+        assertThat(report.total()).isEqualTo(1);
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).isEmpty();
+    }
+
+    @Test
+    void reportCountsEveryRejection() {
+        when(userInfoRepository.findAllByLogins(anyCollection(), anyCollection())).thenReturn(List.of(
+                new UserInfo(UUID.randomUUID(), "taken", "taken@example.com", "hash", true,
+                        Set.of(RoleType.ROLE_STUDENT))));
+
+        var report = importCsv(500,
+                HEADER,
+                row(1),
+                "user-2,not-an-email,secret2,ROLE_STUDENT,UTC",
+                "user-3,user-3@example.com,secret3,ROLE_ADMIN,UTC",
+                "USER-1,other@example.com,secret4,ROLE_STUDENT,UTC",
+                "\"user-5,user-5@example.com,secret5,ROLE_STUDENT,UTC",
+                "",
+                "taken,new@example.com,secret6,ROLE_STUDENT,UTC",
+                row(7));
+
+        assertThat(report.total()).isEqualTo(7);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(5);
+        assertThat(report.errors()).extracting(RowError::line).containsExactlyInAnyOrder(3L, 4L, 5L, 6L, 8L);
+        assertThat(report.errors()).extracting(RowError::message).contains(
+                "Administrator registration is denied",
+                "Duplicate username or email in input",
+                "Username already used");
+    }
+
+    @Test
+    void failedBatchRejectsOnlyItsRows() {
+        when(userService.insertAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        var report = importCsv(2, HEADER, row(1), row(2), row(3), row(4), row(5));
+
+        assertThat(report.total()).isEqualTo(5);
+        assertThat(report.imported()).isEqualTo(3);
+        assertThat(report.failed()).isEqualTo(2);
+        assertThat(report.errors()).containsExactly(
+                new RowError(2, "user-1", "Batch rejected: duplicate key"),
+                new RowError(3, "user-2", "Batch rejected: duplicate key"));
+    }
+}
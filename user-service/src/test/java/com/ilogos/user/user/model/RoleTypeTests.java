@@ -0,0 +1,37 @@
+package com.ilogos.user.user.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class RoleTypeTests {
+
+    @Test
+    void bitsAreDistinct() {
+        int all = 0;
+        for (var role : RoleType.values()) {
+            assertThat(Integer.bitCount(role.getBit())).isEqualTo(1);
+            assertThat(all & role.getBit()).isZero();
+            all |= role.getBit();
+        }
+    }
+
+    @Test
+    void maskRoundTrip() {
+        var roles = EnumSet.of(RoleType.ROLE_ADMIN, RoleType.ROLE_EDITOR);
+
+        assertThat(RoleType.fromMask(RoleType.toMask(roles))).isEqualTo(roles);
+        assertThat(RoleType.fromMask(0)).isEmpty();
+        assertThat(RoleType.fromMask(RoleType.toMask(EnumSet.allOf(RoleType.class))))
+                .containsExactlyInAnyOrder(RoleType.values());
+    }
+
+    @Test
+    void unknownBitsAreIgnored() {
+        assertThat(RoleType.fromMask(RoleType.ROLE_STUDENT.getBit() | 1 << 30))
+                .isEqualTo(Set.of(RoleType.ROLE_STUDENT));
+    }
+}
@@ -0,0 +1,58 @@
+package com.ilogos.user.user.password;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CalibratedPasswordEncoderTests {
+
+    private static CalibratedPasswordEncoder encoder(PasswordHashingConfig.Algorithm algorithm, int strength) {
+        var config = new PasswordHashingConfig();
+        config.setAlgorithm(algorithm);
+        config.setTargetLatency(Duration.ofMillis(1));
+        config.getBcrypt().setMinStrength(strength);
+        config.getBcrypt().setMaxStrength(strength);
+        config.getArgon2().setMemory(1024);
+        config.getArgon2().setMinIterations(strength);
+        config.getArgon2().setMaxIterations(strength);
+        return new CalibratedPasswordEncoder(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        var hash = encoder(PasswordHashingConfig.Algorithm.BCRYPT, 5).encode("secret");
+
+        assertThat(hash).startsWith("$2a$05$");
+    }
+
+    @Test
+    void lowerCostIsUpgraded() {
+        var encoder = encoder(PasswordHashingConfig.Algorithm.BCRYPT, 6);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("secret"))).isFalse();
+    }
+
+    @Test
+    void verifiesAndUpgradesAcrossAlgorithms() {
+        var bcrypt = encoder(PasswordHashingConfig.Algorithm.BCRYPT, 4);
+        var argon2 = encoder(PasswordHashingConfig.Algorithm.ARGON2, 2);
+        var bcryptHash = bcrypt.encode("secret");
+        var argon2Hash = new Argon2PasswordEncoder(16, 32, 1, 1024, 2).encode("secret");
+
+        assertThat(argon2.matches("secret", bcryptHash)).isTrue();
+        assertThat(bcrypt.matches("secret", argon2Hash)).isTrue();
+        assertThat(bcrypt.matches("wrong", argon2Hash)).isFalse();
+
+        assertThat(argon2.upgradeEncoding(bcryptHash)).isTrue();
+        assertThat(bcrypt.upgradeEncoding(argon2Hash)).isTrue();
+        assertThat(argon2.upgradeEncoding(argon2Hash)).isFalse();
+    }
+}
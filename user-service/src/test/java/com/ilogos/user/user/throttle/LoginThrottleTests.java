@@ -0,0 +1,87 @@
+package com.ilogos.user.user.throttle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoginThrottleTests {
+
+    private static final long WINDOW = Duration.ofMinutes(1).toMillis();
+
+    private static LoginThrottle throttle(int maxPerAccount, int maxPerSource) {
+        var config = new LoginThrottleConfig();
+        config.setWindow(Duration.ofMillis(WINDOW));
+        config.setMaxPerAccount(maxPerAccount);
+        config.setMaxPerSource(maxPerSource);
+        return new LoginThrottle(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void rejectsAccountAfterFailures() {
+        var throttle = throttle(3, 100);
+        long now = 10 * WINDOW;
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(throttle.tryAcquire("alice", "10.0.0.1", now)).isTrue();
+            throttle.recordFailure("alice", now);
+        }
+        assertThat(throttle.tryAcquire("alice", "10.0.0.2", now)).isFalse();
+        assertThat(throttle.tryAcquire("bob", "10.0.0.1", now)).isTrue();
+    }
+
+    @Test
+    void successfulLookupsDontCountAgainstAccount() {
+        var throttle = throttle(3, 100);
+        long now = 10 * WINDOW;
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(throttle.tryAcquire("alice", null, now)).isTrue();
+        }
+    }
+
+    @Test
+    void rejectsSourceAcrossAccounts() {
+        var throttle = throttle(100, 2);
+        long now = 10 * WINDOW;
+
+        assertThat(throttle.tryAcquire("alice", "10.0.0.1", now)).isTrue();
+        assertThat(throttle.tryAcquire("bob", "10.0.0.1", now)).isTrue();
+        assertThat(throttle.tryAcquire("carol", "10.0.0.1", now)).isFalse();
+        assertThat(throttle.tryAcquire("carol", null, now)).isTrue();
+    }
+
+    @Test
+    void rejectedAttemptsAreNotCounted() {
+        var throttle = throttle(1, 2);
+        long now = 10 * WINDOW;
+        throttle.recordFailure("alice", now);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(throttle.tryAcquire("alice", "10.0.0.1", now)).isFalse();
+        }
+        // the account rejections didn't use up the source
+        assertThat(throttle.tryAcquire("bob", "10.0.0.1", now)).isTrue();
+        assertThat(throttle.tryAcquire("carol", "10.0.0.1", now)).isTrue();
+        assertThat(throttle.tryAcquire("dave", "10.0.0.1", now)).isFalse();
+    }
+
+    @Test
+    void previousWindowFadesOut() {
+        var throttle = throttle(4, 100);
+        long start = 10 * WINDOW;
+
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("alice", start);
+        }
+        assertThat(throttle.tryAcquire("alice", null, start)).isFalse();
+        // early in the next window most of the previous 4 failures still count
+        assertThat(throttle.tryAcquire("alice", null, start + WINDOW + WINDOW / 8)).isFalse();
+        // later only a quarter of them does
+        assertThat(throttle.tryAcquire("alice", null, start + WINDOW + WINDOW * 3 / 4)).isTrue();
+        assertThat(throttle.tryAcquire("alice", null, start + 3 * WINDOW)).isTrue();
+    }
+}